@@ -0,0 +1,174 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A tournament that plays games on several threads and stops as soon as a sequential
+ * probability ratio test decides whether player 1 is stronger than player 2.
+ * Every worker thread builds its own pair of players and plays rounds until the test
+ * reaches a decision or the maximal number of rounds has been started; colors alternate
+ * by round number, as in Tournament.
+ */
+public class AdaptiveTournament {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int maxRounds; // Rounds played at most if the test does not decide earlier
+    private final int threads; // Number of games played at the same time
+    private final Sprt sprt; // The test deciding when to stop
+    private final PlayerFactory playerFactory; // Builds the players of every worker
+    private final GameClock clock; // Time control of every game, null when untimed
+    private final AtomicInteger nextRound = new AtomicInteger(); // Next round a worker may start
+    private OpeningSuite openings; // Starting positions of the rounds, null to start from an empty board
+
+    // Results from player 1's point of view, guarded by this
+    private long wins;
+    private long draws;
+    private long losses;
+    private long discarded; // Games finished after the decision, not counted
+    private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+    /**
+     * Constructs an adaptive tournament.
+     *
+     * @param maxRounds     Maximal number of rounds to play.
+     * @param threads       Number of games to play at the same time.
+     * @param sprt          The test deciding when to stop.
+     * @param playerFactory Factory building the players of each worker thread.
+     * @param clock         Clock describing the time control of each game, or null for untimed games.
+     */
+    public AdaptiveTournament(int maxRounds, int threads, Sprt sprt, PlayerFactory playerFactory,
+                              GameClock clock) {
+        this.maxRounds = maxRounds;
+        this.threads = Math.max(1, threads);
+        this.sprt = sprt;
+        this.playerFactory = playerFactory;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts every round from an opening of a suite, as Tournament.setOpenings does.
+     * Must be called before playTournament.
+     *
+     * @param openings the suite, built for the size and win streak of the tournament, or null
+     */
+    public void setOpenings(OpeningSuite openings) {
+        this.openings = openings;
+    }
+
+    /**
+     * Plays rounds until the test decides or maxRounds rounds were played, then prints the result.
+     *
+     * @param size         Size of the board.
+     * @param winStreak    Number of consecutive marks required to win.
+     * @param playerName1  Type of the first (tested) player.
+     * @param playerName2  Type of the second (reference) player.
+     */
+    public void playTournament(int size, int winStreak, String playerName1, String playerName2) {
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> playRounds(size, winStreak, playerName1, playerName2));
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+        printResults(playerName1, playerName2, System.nanoTime() - start);
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * The loop of one worker thread.
+     */
+    private void playRounds(int size, int winStreak, String playerName1, String playerName2) {
+        Player player1 = playerFactory.buildPlayer(playerName1, winStreak);
+        Player player2 = playerFactory.buildPlayer(playerName2, winStreak);
+        Renderer renderer = new VoidRenderer(); // Parallel games are never displayed
+        try {
+            playRounds(player1, player2, size, winStreak, renderer);
+        } finally {
+            Tournament.closePlayer(player1);
+            Tournament.closePlayer(player2);
+        }
+    }
+
+    /**
+     * Plays rounds with one pair of players until the test decides or no round is left.
+     */
+    private void playRounds(Player player1, Player player2, int size, int winStreak, Renderer renderer) {
+        while (!isDecided()) {
+            int round = nextRound.getAndIncrement();
+            if (round >= maxRounds) {
+                return;
+            }
+            boolean player1IsX = round % 2 == 0;
+            Player xPlayer = player1IsX ? player1 : player2;
+            Player oPlayer = player1IsX ? player2 : player1;
+            GameClock gameClock = (clock == null) ? null : clock.newGameClock();
+            Game game = new Game(xPlayer, oPlayer, size, winStreak, renderer, gameClock);
+            if (openings != null) {
+                game.playOpening(openings.forRound(round));
+            }
+            Mark winner = game.run();
+            Mark player1Mark = player1IsX ? Mark.X : Mark.O;
+            recordResult(winner == Mark.BLANK ? 0 : (winner == player1Mark ? 1 : -1));
+        }
+    }
+
+    /**
+     * Adds a finished game to the results and runs the test on them.
+     *
+     * @param outcome 1 if player 1 won, -1 if it lost, 0 for a tie
+     */
+    private synchronized void recordResult(int outcome) {
+        if (decision != Sprt.Decision.CONTINUE) {
+            discarded++;
+            return;
+        }
+        if (outcome > 0) {
+            wins++;
+        } else if (outcome < 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+        decision = sprt.decide(wins, draws, losses);
+    }
+
+    private synchronized boolean isDecided() {
+        return decision != Sprt.Decision.CONTINUE;
+    }
+
+    /**
+     * Prints the counts, the test outcome and the Elo estimate.
+     */
+    private synchronized void printResults(String playerName1, String playerName2, long elapsedNanos) {
+        double[] elo = Sprt.eloEstimate(wins, draws, losses);
+        System.out.println("######### Results #########");
+        System.out.println("Player 1, " + playerName1 + " won: " + wins + " rounds");
+        System.out.println("Player 2, " + playerName2 + " won: " + losses + " rounds");
+        System.out.println("Ties: " + draws);
+        System.out.printf("LLR: %.3f (bounds %.3f, %.3f), %s after %d games%n", sprt.llr(wins, draws, losses),
+                sprt.getLowerBound(), sprt.getUpperBound(), describe(decision), wins + draws + losses);
+        System.out.printf("Elo difference: %.1f (95%% confidence interval %.1f to %.1f)%n",
+                elo[0], elo[1], elo[2]);
+        System.out.printf("%d threads, %.1f s, %d games finished after the decision were ignored",
+                threads, (double) elapsedNanos / NANOS_PER_SECOND, discarded);
+    }
+
+    private static String describe(Sprt.Decision decision) {
+        switch (decision) {
+            case ACCEPT_H0:
+                return "H0 accepted";
+            case ACCEPT_H1:
+                return "H1 accepted";
+            default:
+                return "no decision";
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/**
+ * Iterative-deepening negamax search with alpha-beta pruning over a single board.
+ * The search places and removes marks directly on the board it is given, and stops
+ * as soon as its deadline passes, keeping the result of the last completed depth.
+ * An optional transposition table, possibly shared with other searches, stores the
+ * results of positions already searched.
+ */
+class AlphaBetaSearch {
+    static final int WIN_SCORE = 1_000_000; // Score of a won position, reduced by the plies to reach it
+    static final int NO_MOVE = -1; // Returned when the board has no empty cell
+    static final int MAX_DEPTH = 128; // Deepest iteration, bounds the plies on huge boards
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int TIME_CHECK_INTERVAL = 256; // Nodes searched between two clock reads
+
+    private final Board board; // The board being searched, restored after every move tried
+    private final int size; // Cached board size
+    private final int winStreak; // The number of consecutive marks required to win
+    private final PositionEvaluator evaluator; // Kept in sync with the board while searching
+    private final int[][] moveBuffers; // Candidate moves of each ply, allocated on first use
+    private final TranspositionTable table; // Results of searched positions, null for none
+
+    private long deadlineNanos; // System.nanoTime() value after which the search gives up
+    private long nodeLimit; // Nodes after which the search gives up, 0 for no limit
+    private boolean canAbort; // Depth 1 always completes, so there is always a move to play
+    private boolean aborted; // Set once the deadline has passed
+    private long nodes; // Nodes visited by the current search
+    private int completedDepth; // Deepest iteration that finished before the deadline
+    private int lastScore; // Score of the best move at the completed depth
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a search over the given board.
+     *
+     * @param board     the board to search; it is modified during the search and restored afterwards
+     * @param winStreak the number of consecutive marks required to win
+     */
+    AlphaBetaSearch(Board board, int winStreak) {
+        this(board, winStreak, null);
+    }
+
+    /**
+     * Constructs a search over the given board that stores its results in a transposition table.
+     *
+     * @param board     the board to search; it is modified during the search and restored afterwards
+     * @param winStreak the number of consecutive marks required to win
+     * @param table     the transposition table to use, or null for none
+     */
+    AlphaBetaSearch(Board board, int winStreak, TranspositionTable table) {
+        this(board, winStreak, table, new LineEvaluator(board, winStreak));
+    }
+
+    /**
+     * Constructs a search over the given board that scores its leaves with the given evaluator.
+     *
+     * @param board     the board to search; it is modified during the search and restored afterwards
+     * @param winStreak the number of consecutive marks required to win
+     * @param table     the transposition table to use, or null for none; it should not be shared
+     *                  with searches using another evaluator
+     * @param evaluator an evaluator built for the current position of the board
+     */
+    AlphaBetaSearch(Board board, int winStreak, TranspositionTable table, PositionEvaluator evaluator) {
+        this.table = table;
+        this.board = board;
+        this.size = board.getSize();
+        this.winStreak = winStreak;
+        this.evaluator = evaluator;
+        this.moveBuffers = new int[MAX_DEPTH + 2][];
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Gets the number of nodes visited by the last search.
+     *
+     * @return the node count
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the deepest iteration the last search completed.
+     *
+     * @return the completed depth in plies
+     */
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the score of the chosen move, from the point of view of the player to move.
+     *
+     * @return the score of the last completed iteration
+     */
+    int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Checks whether the last search was stopped by its deadline or node limit.
+     *
+     * @return true if the search did not complete
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    //====== SEARCH ======
+
+    /**
+     * Searches one ply deeper at a time until the deadline passes, the game tree is exhausted,
+     * or a forced result is found.
+     *
+     * @param mark          the mark of the player to move
+     * @param deadlineNanos the System.nanoTime() value after which the search stops
+     * @return the best move encoded as row * size + column, or NO_MOVE if the board is full
+     */
+    int findBestMove(Mark mark, long deadlineNanos) {
+        return findBestMove(mark, deadlineNanos, MAX_DEPTH);
+    }
+
+    /**
+     * Searches one ply deeper at a time up to a depth limit, stopping earlier if the deadline
+     * passes, the game tree is exhausted, or a forced result is found. Without a deadline the
+     * result depends only on the position, which makes it reproducible.
+     *
+     * @param mark          the mark of the player to move
+     * @param deadlineNanos the System.nanoTime() value after which the search stops
+     * @param depthLimit    the deepest iteration to search, in plies
+     * @return the best move encoded as row * size + column, or NO_MOVE if the board is full
+     */
+    int findBestMove(Mark mark, long deadlineNanos, int depthLimit) {
+        this.deadlineNanos = deadlineNanos;
+        nodeLimit = 0;
+        nodes = 0;
+        aborted = false;
+        canAbort = false;
+        completedDepth = 0;
+        lastScore = 0;
+
+        int[] moves = generateMoves();
+        if (moves.length <= 1) {
+            return (moves.length == 0) ? NO_MOVE : moves[0]; // Nothing to choose from
+        }
+        int bestMove = moves[0];
+        int maxDepth = maxDepth(board);
+        int lastDepth = Math.min(maxDepth, depthLimit);
+        for (int depth = 1; depth <= lastDepth; depth++) {
+            canAbort = depth > 1;
+            int bestIndex = searchRoot(moves, mark, depth);
+            if (aborted) {
+                break; // Keep the move of the last completed depth
+            }
+            bestMove = moves[bestIndex];
+            moveToFront(moves, bestIndex); // Search the best move first in the next iteration
+            completedDepth = depth;
+            if (Math.abs(lastScore) >= WIN_SCORE - maxDepth) {
+                break; // The game is decided, deeper searches cannot change the result
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Searches a single root move to the given depth, with the window (alpha, infinity).
+     * Used by the parallel search, which distributes the root moves itself.
+     *
+     * @param move          the move encoded as row * size + column
+     * @param mark          the mark of the player to move
+     * @param depth         the depth to search in plies
+     * @param alpha         the score the move has to beat
+     * @param deadlineNanos the System.nanoTime() value after which the search stops
+     * @param nodeLimit     nodes after which the search stops, 0 for no limit
+     * @return the score of the move, exact if above alpha; meaningless if isAborted()
+     */
+    int searchRootMove(int move, Mark mark, int depth, int alpha, long deadlineNanos, long nodeLimit) {
+        this.deadlineNanos = deadlineNanos;
+        this.nodeLimit = nodeLimit;
+        nodes = 0;
+        aborted = false;
+        canAbort = depth > 1;
+        Mark opponentMark = (mark == Mark.X) ? Mark.O : Mark.X;
+        return scoreMove(move, mark, opponentMark, depth, alpha, INFINITY, 1);
+    }
+
+    /**
+     * Lists the root moves, closest to the center first.
+     *
+     * @return the moves encoded as row * size + column
+     */
+    int[] generateMoves() {
+        int count = collectMoves(0);
+        int[] result = new int[count];
+        System.arraycopy(moveBuffers[0], 0, result, 0, count);
+        // Insertion sort by distance from the center, stable for equal distances
+        for (int i = 1; i < count; i++) {
+            int move = result[i];
+            int j = i - 1;
+            while (j >= 0 && centerDistance(result[j]) > centerDistance(move)) {
+                result[j + 1] = result[j];
+                j--;
+            }
+            result[j + 1] = move;
+        }
+        return result;
+    }
+
+    /**
+     * Moves an element to the front of the array, keeping the order of the others.
+     *
+     * @param moves the array to reorder
+     * @param index the index of the element to move
+     */
+    static void moveToFront(int[] moves, int index) {
+        int move = moves[index];
+        System.arraycopy(moves, 0, moves, 1, index);
+        moves[0] = move;
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Searches every root move to the given depth.
+     *
+     * @param moves the root moves, best first
+     * @param mark  the mark of the player to move
+     * @param depth the depth to search in plies
+     * @return the index of the best root move
+     */
+    private int searchRoot(int[] moves, Mark mark, int depth) {
+        Mark opponentMark = (mark == Mark.X) ? Mark.O : Mark.X;
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < moves.length; i++) {
+            int score = scoreMove(moves[i], mark, opponentMark, depth, alpha, INFINITY, 1);
+            if (aborted) {
+                return bestIndex;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+            }
+        }
+        lastScore = alpha;
+        return bestIndex;
+    }
+
+    /**
+     * Plays a move, scores the resulting position and undoes the move.
+     *
+     * @return the score of the move from the point of view of the player making it
+     */
+    private int scoreMove(int move, Mark mark, Mark opponentMark, int depth, int alpha, int beta, int ply) {
+        int row = move / size;
+        int col = move % size;
+        board.putMark(mark, row, col);
+        evaluator.place(row, col, mark);
+        int score;
+        if (Game.completesStreak(board, row, col, winStreak)) {
+            score = WIN_SCORE - ply; // Prefer the quickest win
+        } else {
+            score = -negamax(opponentMark, depth - 1, -beta, -alpha, ply + 1);
+        }
+        board.removeMark(row, col);
+        evaluator.remove(row, col, mark);
+        return score;
+    }
+
+    /**
+     * Negamax with alpha-beta pruning.
+     *
+     * @return the score of the position from the point of view of the player to move
+     */
+    private int negamax(Mark mark, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if (canAbort && ((nodeLimit > 0 && nodes > nodeLimit)
+                || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(mark);
+        }
+        int originalAlpha = alpha;
+        long key = 0;
+        int tableMove = TranspositionTable.NO_MOVE;
+        if (table != null) {
+            key = TranspositionTable.positionKey(board.getHash(), mark);
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.moveOf(entry);
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    int value = fromTable(TranspositionTable.valueOf(entry), ply);
+                    int bound = TranspositionTable.boundOf(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && value >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && value <= alpha)) {
+                        return value;
+                    }
+                }
+            }
+        }
+
+        Mark opponentMark = (mark == Mark.X) ? Mark.O : Mark.X;
+        int moveCount = collectMoves(ply);
+        int[] moves = moveBuffers[ply];
+        if (tableMove != TranspositionTable.NO_MOVE) {
+            tryFirst(moves, moveCount, tableMove);
+        }
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < moveCount; i++) {
+            int score = scoreMove(moves[i], mark, opponentMark, depth, alpha, beta, ply);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (best > alpha) {
+                    alpha = best;
+                    if (alpha >= beta) {
+                        break; // The opponent will avoid this position
+                    }
+                }
+            }
+        }
+        if (table != null && moveCount > 0) {
+            int bound = (best <= originalAlpha) ? TranspositionTable.BOUND_UPPER
+                    : (best >= beta) ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+            table.store(key, toTable(best, ply), bound, depth, bestMove);
+        }
+        return (moveCount > 0) ? best : 0; // A full board without a winner is a tie
+    }
+
+    /**
+     * Collects the candidate moves of a ply into its move buffer: the board's frontier, or,
+     * when the frontier is empty but the board is not full, every empty cell of a dense board
+     * and the center of a sparse one.
+     *
+     * @param ply the ply whose move buffer is filled
+     * @return the number of moves collected
+     */
+    private int collectMoves(int ply) {
+        int frontierSize = board.getFrontierSize();
+        int capacity = board.isSparse() ? Math.max(1, frontierSize) : size * size;
+        if (moveBuffers[ply] == null || moveBuffers[ply].length < capacity) {
+            moveBuffers[ply] = new int[Math.max(capacity, 2 * frontierSize)];
+        }
+        int[] moves = moveBuffers[ply];
+        int count = board.copyFrontier(moves);
+        if (count > 0 || (long) board.getStoneCount() == (long) size * size) {
+            return count;
+        }
+        if (board.isSparse()) {
+            if (board.getStoneCount() == 0) {
+                moves[count++] = (size / 2) * size + size / 2;
+            }
+            return count;
+        }
+        for (int move = 0; move < size * size; move++) {
+            if (board.getMark(move / size, move % size) == Mark.BLANK) {
+                moves[count++] = move;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the deepest iteration worth searching: the number of empty cells, capped at MAX_DEPTH.
+     *
+     * @param board the position to search
+     * @return the maximal depth in plies
+     */
+    static int maxDepth(Board board) {
+        long emptyCells = (long) board.getSize() * board.getSize() - board.getStoneCount();
+        return (int) Math.min(MAX_DEPTH, emptyCells);
+    }
+
+    /**
+     * Moves the given move to the front of the candidates, if it is one of them.
+     */
+    private static void tryFirst(int[] moves, int moveCount, int move) {
+        for (int i = 0; i < moveCount; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Converts a score to the form stored in the table. Win scores depend on the distance
+     * from the root, so they are stored relative to the position instead.
+     */
+    private static int toTable(int score, int ply) {
+        if (score > LineEvaluator.MAX_SCORE) {
+            return score + ply;
+        }
+        return (score < -LineEvaluator.MAX_SCORE) ? score - ply : score;
+    }
+
+    /**
+     * Converts a score read from the table back to a distance from the root.
+     */
+    private static int fromTable(int value, int ply) {
+        if (value > LineEvaluator.MAX_SCORE) {
+            return value - ply;
+        }
+        return (value < -LineEvaluator.MAX_SCORE) ? value + ply : value;
+    }
+
+    /**
+     * Computes twice the Chebyshev distance of a cell from the center of the board.
+     */
+    private int centerDistance(int move) {
+        int row = move / size;
+        int col = move % size;
+        return Math.max(Math.abs(2 * row - (size - 1)), Math.abs(2 * col - (size - 1)));
+    }
+}
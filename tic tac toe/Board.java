@@ -1,11 +1,34 @@
+import java.util.Arrays;
+
 /**
  * Represents a Tic-Tac-Toe board for an n x n game.
  * Handles board size, marking positions, and validating moves.
+ * <p>
+ * The board also maintains a frontier: the empty cells within a small distance of any
+ * occupied cell. It is updated incrementally on every placed or removed mark, so AI players
+ * can consider only the cells near the stones instead of scanning the whole board.
+ * Likewise, a Zobrist hash of the position is kept up to date for transposition tables.
+ * <p>
+ * This class stores its cells in dense arrays. SparseBoard overrides the cell storage
+ * methods to store only the occupied cells, for boards too large to allocate densely.
  */
 public class Board {
     private static final int DEFAULT_BOARD_SIZE = 4; // Default board size
+    private static final int DENSE_SIZE_LIMIT = 256; // Larger boards are created sparse by forSize
+    private static final int FRONTIER_DISTANCE = 2; // Max distance of a frontier cell from a stone
+    private static final int INITIAL_SPARSE_FRONTIER = 64; // Initial frontier capacity of sparse boards
+    static final int NO_MOVE = -1; // Last move of a board no mark was placed on yet
     private final int boardSize; // Current board size
-    private Mark[][] board; // 2D array representing the board
+    private Mark[][] board; // 2D array representing the board, null for sparse boards
+    private int stoneCount; // Number of occupied cells
+    private long hash; // Zobrist hash of the marks on the board, 0 when empty
+    private int lastMove = NO_MOVE; // The cell of the last mark placed
+
+    // Frontier bookkeeping, cells are encoded as row * boardSize + column
+    private int[] neighborCount; // Occupied cells within FRONTIER_DISTANCE of each cell
+    private int[] frontier; // The frontier cells, in no particular order
+    private int[] frontierIndex; // Position of each cell in frontier, or -1 if not in it
+    private int frontierSize; // Number of frontier cells
 
     //====== CONSTRUCTORS ======
 
@@ -29,8 +52,155 @@ public class Board {
         initializeBoard();
     }
 
+    /**
+     * Constructor for subclasses that store the cells themselves.
+     * No cell arrays are allocated; the frontier list starts small and grows as needed.
+     *
+     * @param size the size of the board (nxn)
+     * @param sparse must be true, distinguishes this constructor
+     */
+    Board(int size, boolean sparse) {
+        boardSize = size;
+        frontier = new int[INITIAL_SPARSE_FRONTIER];
+    }
+
+    /**
+     * Copy constructor, creates an independent board with the same marks.
+     * Used by searches that explore the same position on several threads.
+     *
+     * @param other the board to copy
+     */
+    Board(Board other) {
+        this(other.boardSize);
+        other.copyMarksTo(this);
+    }
+
+    /**
+     * Creates an empty board of the given size, stored densely for ordinary sizes
+     * and sparsely for very large ones.
+     *
+     * @param size the size of the board (nxn)
+     * @return a new empty board
+     */
+    static Board forSize(int size) {
+        return (size <= DENSE_SIZE_LIMIT) ? new Board(size) : new SparseBoard(size);
+    }
+
+    /**
+     * Creates an independent board with the same marks, of the same kind as this one.
+     *
+     * @return the copy
+     */
+    Board copy() {
+        return new Board(this);
+    }
+
     //====== GETTERS & SETTERS ======
 
+    /**
+     * Gets the number of marks on the board.
+     *
+     * @return the number of occupied cells
+     */
+    public int getStoneCount() {
+        return stoneCount;
+    }
+
+    /**
+     * Gets the cell the last mark was placed on.
+     *
+     * @return the cell encoded as row * getSize() + column, or NO_MOVE if it was removed
+     *         or no mark was placed yet
+     */
+    int getLastMove() {
+        return lastMove;
+    }
+
+    /**
+     * Lists the occupied cells, in no particular order.
+     *
+     * @return the cells encoded as row * getSize() + column
+     */
+    int[] getOccupiedCells() {
+        int[] cells = new int[stoneCount];
+        int count = 0;
+        for (int row = 0; row < boardSize && count < stoneCount; row++) {
+            for (int column = 0; column < boardSize; column++) {
+                if (board[row][column] != Mark.BLANK) {
+                    cells[count++] = row * boardSize + column;
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Checks whether the board stores only its occupied cells.
+     *
+     * @return true for sparse boards
+     */
+    boolean isSparse() {
+        return false;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position: the XOR of the keys of all placed marks.
+     * Equal positions have equal hashes, also across Board instances.
+     *
+     * @return the hash of the marks on the board
+     */
+    long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the Zobrist key of a mark on a cell. The keys are derived from the coordinates,
+     * so they need no table and are the same for boards of every size.
+     *
+     * @param mark the mark, X or O
+     * @param row the row coordinate
+     * @param column the column coordinate
+     * @return the key XOR-ed into the hash while the mark is on the cell
+     */
+    static long zobristKey(Mark mark, int row, int column) {
+        long z = ((((long) row << 32) | (column & 0xFFFFFFFFL)) << 1 | (mark == Mark.X ? 0 : 1))
+                + 0x9E3779B97F4A7C15L;
+        // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the number of empty cells within the frontier distance of a stone.
+     *
+     * @return the frontier size, 0 on an empty board
+     */
+    public int getFrontierSize() {
+        return frontierSize;
+    }
+
+    /**
+     * Gets a frontier cell. The order of the cells changes as marks are placed and removed.
+     *
+     * @param index an index between 0 and getFrontierSize() - 1
+     * @return the cell encoded as row * getSize() + column
+     */
+    public int getFrontierCell(int index) {
+        return frontier[index];
+    }
+
+    /**
+     * Copies the frontier cells, for callers that modify the board while iterating them.
+     *
+     * @param destination the array to copy into, at least getFrontierSize() long
+     * @return the number of cells copied
+     */
+    public int copyFrontier(int[] destination) {
+        System.arraycopy(frontier, 0, destination, 0, frontierSize);
+        return frontierSize;
+    }
+
     /**
      * Gets the size of the board (n).
      *
@@ -51,7 +221,7 @@ public class Board {
         if (!checkCoordinates(row, column)) {
             return Mark.BLANK; // Invalid coordinates, return BLANK
         }
-        return board[row][column];
+        return readCell(row, column);
     }
 
 
@@ -67,8 +237,14 @@ public class Board {
         if (!checkCoordinates(row, column)) {
             return false; // Invalid coordinates
         }
-        if (board[row][column] == Mark.BLANK) {
-            board[row][column] = mark;
+        if (readCell(row, column) == Mark.BLANK) {
+            writeCell(row, column, mark);
+            stoneCount++;
+            hash ^= zobristKey(mark, row, column);
+            int cell = row * boardSize + column;
+            lastMove = cell;
+            removeFromFrontier(cell);
+            updateNeighbors(row, column, 1);
             return true;
         } else {
             System.out.println("Mark position is already occupied." +
@@ -77,6 +253,106 @@ public class Board {
         }
     }
 
+    /**
+     * Clears a mark placed earlier, so search players can undo the moves they try.
+     *
+     * @param row the row coordinate
+     * @param column the column coordinate
+     */
+    void removeMark(int row, int column) {
+        Mark mark = readCell(row, column);
+        if (mark == Mark.BLANK) {
+            return;
+        }
+        hash ^= zobristKey(mark, row, column);
+        writeCell(row, column, Mark.BLANK);
+        stoneCount--;
+        updateNeighbors(row, column, -1);
+        int cell = row * boardSize + column;
+        lastMove = NO_MOVE;
+        if (neighborCountOf(cell) > 0) {
+            addToFrontier(cell);
+        }
+    }
+
+    //====== CELL STORAGE, OVERRIDDEN BY SPARSE BOARDS ======
+
+    /**
+     * Reads a cell without checking the coordinates.
+     *
+     * @param row the row coordinate
+     * @param column the column coordinate
+     * @return the mark on the cell
+     */
+    Mark readCell(int row, int column) {
+        return board[row][column];
+    }
+
+    /**
+     * Writes a cell without checking the coordinates or updating any bookkeeping.
+     *
+     * @param row the row coordinate
+     * @param column the column coordinate
+     * @param mark the mark to store, BLANK to clear the cell
+     */
+    void writeCell(int row, int column, Mark mark) {
+        board[row][column] = mark;
+    }
+
+    /**
+     * Gets the number of occupied cells within the frontier distance of a cell.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     * @return the neighbor count
+     */
+    int neighborCountOf(int cell) {
+        return neighborCount[cell];
+    }
+
+    /**
+     * Adds to the neighbor count of a cell.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     * @param delta the amount to add
+     * @return the new neighbor count
+     */
+    int addNeighborCount(int cell, int delta) {
+        return neighborCount[cell] += delta;
+    }
+
+    /**
+     * Gets the position of a cell in the frontier list.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     * @return the index in the frontier list, or -1 if the cell is not in the frontier
+     */
+    int frontierIndexOf(int cell) {
+        return frontierIndex[cell];
+    }
+
+    /**
+     * Sets the position of a cell in the frontier list.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     * @param index the index in the frontier list, or -1 to mark the cell as not in the frontier
+     */
+    void setFrontierIndex(int cell, int index) {
+        frontierIndex[cell] = index;
+    }
+
+    /**
+     * Places every mark of this board on another, empty board of the same size.
+     *
+     * @param target the board to copy the marks to
+     */
+    void copyMarksTo(Board target) {
+        for (int cell : getOccupiedCells()) {
+            int row = cell / boardSize;
+            int column = cell % boardSize;
+            target.putMark(readCell(row, column), row, column);
+        }
+    }
+
     //====== HELPERS ======
 
     /**
@@ -88,6 +364,72 @@ public class Board {
                 board[row][column] = Mark.BLANK;
             }
         }
+        int cells = boardSize * boardSize;
+        neighborCount = new int[cells];
+        frontier = new int[cells];
+        frontierIndex = new int[cells];
+        Arrays.fill(frontierIndex, -1);
+    }
+
+    /**
+     * Updates the neighbor counts around a cell whose occupancy changed, and moves the empty
+     * cells whose count became or stopped being zero into or out of the frontier.
+     *
+     * @param row the row coordinate of the changed cell
+     * @param column the column coordinate of the changed cell
+     * @param delta 1 if the cell was occupied, -1 if it was cleared
+     */
+    private void updateNeighbors(int row, int column, int delta) {
+        int firstRow = Math.max(0, row - FRONTIER_DISTANCE);
+        int lastRow = Math.min(boardSize - 1, row + FRONTIER_DISTANCE);
+        int firstColumn = Math.max(0, column - FRONTIER_DISTANCE);
+        int lastColumn = Math.min(boardSize - 1, column + FRONTIER_DISTANCE);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * boardSize + c;
+                int count = addNeighborCount(cell, delta);
+                if ((r == row && c == column) || readCell(r, c) != Mark.BLANK) {
+                    continue; // Only empty cells other than the changed one belong to the frontier
+                }
+                if (delta > 0 && count == 1) {
+                    addToFrontier(cell);
+                } else if (delta < 0 && count == 0) {
+                    removeFromFrontier(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a cell to the frontier, if it is not already there.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     */
+    private void addToFrontier(int cell) {
+        if (frontierIndexOf(cell) >= 0) {
+            return;
+        }
+        if (frontierSize == frontier.length) {
+            frontier = Arrays.copyOf(frontier, frontierSize * 2); // Only sparse boards grow
+        }
+        setFrontierIndex(cell, frontierSize);
+        frontier[frontierSize++] = cell;
+    }
+
+    /**
+     * Removes a cell from the frontier by moving the last frontier cell into its place.
+     *
+     * @param cell the cell encoded as row * boardSize + column
+     */
+    private void removeFromFrontier(int cell) {
+        int index = frontierIndexOf(cell);
+        if (index < 0) {
+            return;
+        }
+        int last = frontier[--frontierSize];
+        frontier[index] = last;
+        setFrontierIndex(last, index);
+        setFrontierIndex(cell, -1);
     }
 
     /**
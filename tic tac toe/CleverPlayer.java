@@ -16,6 +16,16 @@ public class CleverPlayer implements Player {
         // No parameters as specified in instructions
     }
 
+    /**
+     * Reseeds the random generator, so that the following moves can be reproduced.
+     *
+     * @param seed the new seed
+     */
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * Randomly selects an empty cell on the board and places the mark.
      *
@@ -48,22 +58,16 @@ public class CleverPlayer implements Player {
         int size = board.getSize();
         Mark opponentMark = (mark == Mark.X) ? Mark.O : Mark.X;
 
-        // Loop through each cell on the board
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-
-                if (board.getMark(row, col) != Mark.BLANK) {
-                    // dont consider used cells
-                    continue;
-                }
-                // empty cell
-                // Check if this move can complete a streak for the current player
-                if (isWinningMove(board, row, col, mark)) {
-                    board.putMark(mark, row, col); //Win the game
-                    return true; // Winning move found, exit
-                }
-
+        // Loop through the empty cells near the stones, only those can complete a streak
+        for (int i = 0; i < board.getFrontierSize(); i++) {
+            int cell = board.getFrontierCell(i);
+            int row = cell / size;
+            int col = cell % size;
 
+            // Check if this move can complete a streak for the current player
+            if (isWinningMove(board, row, col, mark)) {
+                board.putMark(mark, row, col); //Win the game
+                return true; // Winning move found, exit
             }
         }
         return false; // No winning or blocking move found
@@ -1,5 +1,5 @@
 public class Constants {
-    public final static String UNKNOWN_PLAYER_NAME = "Choose a player, and start again.\nThe players: [human, clever, whatever, genius]";
+    public final static String UNKNOWN_PLAYER_NAME = "Choose a player, and start again.\nThe players: [human, clever, whatever, genius, search, parallel, neural]";
 
     public final static String UNKNOWN_RENDERER_NAME = "Choose a renderer, and start again. \nPlease choose one of the following [console, none]";
 
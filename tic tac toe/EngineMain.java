@@ -0,0 +1,116 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs one of the built-in players as an external engine speaking EngineProtocol on its
+ * standard input and output, so it can be played through EnginePlayer or by other hosts.
+ * Unknown and malformed messages are ignored, as in UCI, with a note on standard error.
+ */
+public class EngineMain {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Player player; // Chooses the moves
+    private Board board; // The last position received, null before the first
+
+    /**
+     * Constructs an engine around a player.
+     *
+     * @param player the player choosing the moves
+     */
+    EngineMain(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * Answers messages until "quit" or the end of the input.
+     *
+     * @param in  the host's messages
+     * @param out the answers, flushed after every one
+     * @throws IOException if reading or writing fails
+     */
+    void run(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] tokens = EngineProtocol.tokenize(line);
+            try {
+                switch (tokens[0]) {
+                    case EngineProtocol.POSITION:
+                        board = EngineProtocol.parsePosition(tokens);
+                        break;
+                    case EngineProtocol.GO:
+                        out.write(chooseMove(tokens));
+                        out.write('\n');
+                        out.flush();
+                        break;
+                    case EngineProtocol.IS_READY:
+                        out.write(EngineProtocol.READY_OK);
+                        out.write('\n');
+                        out.flush();
+                        break;
+                    case EngineProtocol.QUIT:
+                        return;
+                    default:
+                        break; // Not for this engine
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignored \"" + line + "\": " + e.getMessage());
+            }
+        }
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Lets the player move on the last position received.
+     *
+     * @param tokens the tokens of the go message
+     * @return the bestmove message, "bestmove none" if the player did not move
+     * @throws IllegalArgumentException if the message is malformed or no position was received
+     */
+    private String chooseMove(String[] tokens) {
+        EngineProtocol.expect(tokens, EngineProtocol.GO, 3);
+        if (board == null) {
+            throw new IllegalArgumentException("go before position");
+        }
+        Mark mark = EngineProtocol.parseMark(tokens[1]);
+        long deadline = System.nanoTime() + EngineProtocol.parseInt(tokens[2]) * NANOS_PER_MILLI;
+        int stones = board.getStoneCount();
+        if (stones >= (long) board.getSize() * board.getSize()) {
+            return EngineProtocol.formatNoMove(); // Players are never asked to move on a full board
+        }
+        player.playTurn(board, mark, deadline);
+        if (board.getStoneCount() == stones) {
+            return EngineProtocol.formatNoMove();
+        }
+        int move = board.getLastMove();
+        return EngineProtocol.formatBestMove(move / board.getSize(), move % board.getSize());
+    }
+
+    /**
+     * Runs a built-in player as an engine.
+     *
+     * @param args Command-line arguments: [player type] [win streak], e.g. "genius 3"
+     * @throws IOException if the standard streams fail
+     */
+    public static void main(String[] args) throws IOException {
+        int winStreak = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+        Player player = new PlayerFactory().buildPlayer(args[0], winStreak);
+        if (player == null) {
+            System.err.println("Unknown player type: " + args[0]);
+            return;
+        }
+        try {
+            new EngineMain(player).run(new InputStreamReader(System.in, StandardCharsets.US_ASCII),
+                    new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)));
+        } finally {
+            Tournament.closePlayer(player);
+        }
+    }
+}
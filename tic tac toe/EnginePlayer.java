@@ -0,0 +1,226 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a player whose moves are chosen by an engine running as a separate process,
+ * speaking EngineProtocol over its standard input and output.
+ * <p>
+ * The process is started when the player is built and kept for every move and game, so a
+ * tournament pays the startup cost once; close() stops it. Each move request is written as
+ * "isready", the position and "go" in a single flush, and a reader thread queues the engine's
+ * lines, so waiting for the answer is a timed poll. As the engine handles messages in order,
+ * late answers to earlier requests always arrive before the "readyok" of the current one.
+ * The player counts the "isready" requests still unanswered and skips every line until the
+ * last of them is answered, so an engine that misses its time, even on several requests in
+ * a row, is resynchronized without a restart. Only an engine whose process exited or whose
+ * pipe broke is started again, for the next move.
+ */
+public class EnginePlayer implements Player, AutoCloseable {
+    static final long DEFAULT_MOVE_TIMEOUT_MILLIS = 5000; // Longest wait for an untimed move
+    private static final long DEFAULT_THINK_MILLIS = 200; // Thinking time announced when untimed
+    private static final long STARTUP_TIMEOUT_MILLIS = 10_000; // Longest wait for a new engine to be ready
+    private static final long PIPE_MARGIN_MILLIS = 20; // Announced time kept for the message round trip
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final String END_OF_STREAM = "\u0000eof"; // Queued when the engine's output ends
+
+    private final List<String> command; // Program and arguments of the engine
+    private final long moveTimeoutMillis; // Longest wait for a move in an untimed game
+    private Process process; // The running engine, null once closed or after its pipe broke
+    private BufferedWriter toEngine; // Requests to the engine
+    private BlockingQueue<String> fromEngine; // Lines read from the engine by the reader thread
+    private int pendingReadyOks; // "isready" requests sent to the running engine and not yet answered
+
+    /**
+     * Constructs a player for an engine command, starts the engine and waits until it is ready.
+     *
+     * @param command           the program and its arguments
+     * @param moveTimeoutMillis the longest wait for a move in an untimed game
+     * @throws UncheckedIOException if the engine cannot be started, or the wait was interrupted
+     */
+    public EnginePlayer(List<String> command, long moveTimeoutMillis) {
+        this.command = List.copyOf(command);
+        this.moveTimeoutMillis = moveTimeoutMillis;
+        try {
+            ensureStarted(); // Start now, so the first move is not charged the startup time
+            toEngine.write(EngineProtocol.IS_READY);
+            toEngine.write('\n');
+            toEngine.flush();
+            String line = fromEngine.poll(STARTUP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (!EngineProtocol.READY_OK.equals(line)) {
+                throw new IOException("no readyok within " + STARTUP_TIMEOUT_MILLIS + " ms");
+            }
+        } catch (IOException e) {
+            destroy();
+            throw new UncheckedIOException("Cannot start engine " + this.command + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroy();
+            throw new UncheckedIOException("Interrupted while starting engine " + this.command,
+                    new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Asks the engine for a move with the default thinking time and places its mark.
+     * An engine that does not answer within the move timeout does not move, and loses the game.
+     *
+     * @param board The current game board where the move will be made.
+     * @param mark  The mark (X or O) representing the player making the move.
+     * @throws IllegalStateException if the engine answers with an illegal move
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        requestMove(board, mark, DEFAULT_THINK_MILLIS, moveTimeoutMillis);
+    }
+
+    /**
+     * Asks the engine for a move within the time left until the deadline and places its mark.
+     * An engine that misses the deadline does not move, and loses the game.
+     *
+     * @param board         The current game board where the move will be made.
+     * @param mark          The mark (X or O) representing the player making the move.
+     * @param deadlineNanos The System.nanoTime() value by which the move should be made.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark, long deadlineNanos) {
+        long millis = Math.max(0, (deadlineNanos - System.nanoTime()) / NANOS_PER_MILLI);
+        requestMove(board, mark, Math.max(0, millis - PIPE_MARGIN_MILLIS), millis);
+    }
+
+    /**
+     * Stops the engine process, if it is running.
+     */
+    @Override
+    public void close() {
+        if (process == null) {
+            return;
+        }
+        try {
+            toEngine.write(EngineProtocol.QUIT);
+            toEngine.write('\n');
+            toEngine.flush();
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            process.destroyForcibly(); // The engine is already gone or stuck
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+        process = null;
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Sends the synchronization, position and go requests, then waits for the answer and applies it.
+     * An engine that fails to answer in time places no mark.
+     *
+     * @throws IllegalStateException if the engine answered with an illegal move
+     */
+    private void requestMove(Board board, Mark mark, long thinkMillis, long waitMillis) {
+        long deadline = System.nanoTime() + waitMillis * NANOS_PER_MILLI;
+        String answer = null;
+        try {
+            ensureStarted();
+            toEngine.write(EngineProtocol.IS_READY);
+            toEngine.write('\n');
+            toEngine.write(EngineProtocol.formatPosition(board));
+            toEngine.write('\n');
+            toEngine.write(EngineProtocol.formatGo(mark, thinkMillis));
+            toEngine.write('\n');
+            toEngine.flush(); // The three requests leave in one write
+            pendingReadyOks++;
+            while (answer == null) {
+                String line = fromEngine.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (line == null || line.equals(END_OF_STREAM)) {
+                    break;
+                }
+                if (line.equals(EngineProtocol.READY_OK)) {
+                    pendingReadyOks--;
+                } else if (pendingReadyOks == 0) {
+                    answer = line;
+                } // Otherwise a late answer to an earlier request
+            }
+        } catch (IOException e) {
+            destroy(); // The pipe broke, the engine is started again for the next move
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (answer == null) {
+            return;
+        }
+        int[] move;
+        try {
+            move = EngineProtocol.parseBestMove(EngineProtocol.tokenize(answer));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Engine " + command + " answered: " + answer, e);
+        }
+        if (move == null) {
+            return; // The engine gave up its turn
+        }
+        if (!board.putMark(mark, move[0], move[1])) {
+            throw new IllegalStateException("Engine " + command + " played an illegal move: " + answer);
+        }
+    }
+
+    /**
+     * Starts the engine process and its reader thread, unless it is already running.
+     *
+     * @throws IOException if the process cannot be started
+     */
+    private void ensureStarted() throws IOException {
+        if (process != null && process.isAlive()) {
+            return;
+        }
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        toEngine = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII));
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+        Thread readerThread = new Thread(() -> readLines(reader, queue), "engine-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        fromEngine = queue;
+        pendingReadyOks = 0;
+    }
+
+    /**
+     * Queues the engine's lines until its output ends. Only answers to requests are kept.
+     */
+    private static void readLines(BufferedReader reader, BlockingQueue<String> queue) {
+        try (reader) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(EngineProtocol.BEST_MOVE) || line.equals(EngineProtocol.READY_OK)) {
+                    queue.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // The process was stopped
+        } finally {
+            queue.add(END_OF_STREAM);
+        }
+    }
+
+    /**
+     * Kills the engine process, so the next move starts a fresh one.
+     */
+    private void destroy() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+        }
+    }
+}
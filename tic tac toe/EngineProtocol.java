@@ -0,0 +1,221 @@
+/**
+ * The line protocol spoken between a game host and a remote or external engine.
+ * Like UCI, every message is one line of space-separated tokens, and the host drives the
+ * conversation:
+ * <pre>
+ * host:   position 3 x 0 4 o 8       board size, then the cells (row * size + column) of each mark
+ * host:   go x 1000                  the mark to play and the thinking time in milliseconds
+ * engine: bestmove 1 2               row and column of the chosen cell, or "bestmove none"
+ * host:   result x                   winner of the finished game: x, o or tie
+ * </pre>
+ * A client of the game server opens each game with "newgame size winStreak mark opponent",
+ * which the server refuses with "error" and a reason if it will not play that game, and
+ * either side ends the conversation with "quit". "isready" is answered with "readyok" once
+ * the engine has processed every earlier message, which lets a host pipeline messages and
+ * synchronize only when it has to.
+ * <p>
+ * Every position is sent in full, so engines keep no state between moves.
+ */
+final class EngineProtocol {
+    static final String NEW_GAME = "newgame";
+    static final String POSITION = "position";
+    static final String GO = "go";
+    static final String BEST_MOVE = "bestmove";
+    static final String NO_MOVE = "none"; // Replaces the cell of a bestmove message when there is no move
+    static final String RESULT = "result";
+    static final String IS_READY = "isready";
+    static final String READY_OK = "readyok";
+    static final String QUIT = "quit";
+    static final String TIE = "tie";
+    static final String ERROR = "error";
+
+    private EngineProtocol() {
+        // Only static helpers
+    }
+
+    //====== FORMATTING ======
+
+    /**
+     * Formats the position message of a board.
+     *
+     * @param board the board to describe
+     * @return the message, e.g. "position 3 x 0 4 o 8"
+     */
+    static String formatPosition(Board board) {
+        int[] cells = board.getOccupiedCells();
+        int size = board.getSize();
+        StringBuilder xCells = new StringBuilder();
+        StringBuilder oCells = new StringBuilder();
+        for (int cell : cells) {
+            StringBuilder target = (board.getMark(cell / size, cell % size) == Mark.X) ? xCells : oCells;
+            target.append(' ').append(cell);
+        }
+        return POSITION + " " + size + " x" + xCells + " o" + oCells;
+    }
+
+    /**
+     * Formats the message asking an engine to move.
+     *
+     * @param mark        the mark to play
+     * @param thinkMillis the time the engine may think
+     * @return the message, e.g. "go x 1000"
+     */
+    static String formatGo(Mark mark, long thinkMillis) {
+        return GO + " " + formatMark(mark) + " " + thinkMillis;
+    }
+
+    /**
+     * Formats an engine's answer.
+     *
+     * @param row    the row of the chosen cell
+     * @param column the column of the chosen cell
+     * @return the message, e.g. "bestmove 1 2"
+     */
+    static String formatBestMove(int row, int column) {
+        return BEST_MOVE + " " + row + " " + column;
+    }
+
+    /**
+     * Formats the answer of an engine that did not move.
+     *
+     * @return the message "bestmove none"
+     */
+    static String formatNoMove() {
+        return BEST_MOVE + " " + NO_MOVE;
+    }
+
+    /**
+     * Formats the message ending a game.
+     *
+     * @param winner the winner, BLANK for a tie
+     * @return the message, e.g. "result x"
+     */
+    static String formatResult(Mark winner) {
+        return RESULT + " " + (winner == Mark.BLANK ? TIE : formatMark(winner));
+    }
+
+    /**
+     * Formats the message refusing a request.
+     *
+     * @param reason why the request was refused
+     * @return the message, e.g. "error Bad size: 0"
+     */
+    static String formatError(String reason) {
+        return ERROR + " " + reason;
+    }
+
+    /**
+     * Formats a mark as a protocol token.
+     *
+     * @param mark X or O
+     * @return "x" or "o"
+     */
+    static String formatMark(Mark mark) {
+        return (mark == Mark.X) ? "x" : "o";
+    }
+
+    //====== PARSING ======
+
+    /**
+     * Splits a message into its tokens.
+     *
+     * @param line the message
+     * @return the tokens, the first being the command
+     */
+    static String[] tokenize(String line) {
+        return line.trim().split("\\s+");
+    }
+
+    /**
+     * Rebuilds the board described by a position message.
+     *
+     * @param tokens the tokens of the message
+     * @return a new board holding the marks
+     * @throws IllegalArgumentException if the message is malformed, its size is not a board size,
+     *                                  or it places a mark twice
+     */
+    static Board parsePosition(String[] tokens) {
+        expect(tokens, POSITION, 3);
+        int size = parseInt(tokens[1]);
+        if (size < 1) {
+            throw new IllegalArgumentException("Bad size in position: " + tokens[1]);
+        }
+        Board board = Board.forSize(size); // Sparse boards reject sizes beyond their own limit
+        Mark mark = null;
+        for (int i = 2; i < tokens.length; i++) {
+            if (tokens[i].equals("x") || tokens[i].equals("o")) {
+                mark = parseMark(tokens[i]);
+            } else {
+                int cell = parseInt(tokens[i]);
+                if (mark == null || cell < 0 || cell / size >= size
+                        || board.getMark(cell / size, cell % size) != Mark.BLANK) { // putMark would print
+                    throw new IllegalArgumentException("Bad cell in position: " + tokens[i]);
+                }
+                board.putMark(mark, cell / size, cell % size);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Reads the cell of a bestmove message.
+     *
+     * @param tokens the tokens of the message
+     * @return {row, column}, or null for "bestmove none"
+     * @throws IllegalArgumentException if the message is not a bestmove message
+     */
+    static int[] parseBestMove(String[] tokens) {
+        if (tokens.length == 2 && tokens[0].equals(BEST_MOVE) && tokens[1].equals(NO_MOVE)) {
+            return null;
+        }
+        expect(tokens, BEST_MOVE, 3);
+        return new int[]{parseInt(tokens[1]), parseInt(tokens[2])};
+    }
+
+    /**
+     * Parses a mark token.
+     *
+     * @param token "x" or "o"
+     * @return the mark
+     * @throws IllegalArgumentException for any other token
+     */
+    static Mark parseMark(String token) {
+        switch (token) {
+            case "x":
+                return Mark.X;
+            case "o":
+                return Mark.O;
+            default:
+                throw new IllegalArgumentException("Bad mark: " + token);
+        }
+    }
+
+    /**
+     * Checks the command and the minimal length of a message.
+     *
+     * @param tokens    the tokens of the message
+     * @param command   the expected command
+     * @param minLength the minimal number of tokens
+     * @throws IllegalArgumentException if the message does not match
+     */
+    static void expect(String[] tokens, String command, int minLength) {
+        if (tokens.length < minLength || !tokens[0].equals(command)) {
+            throw new IllegalArgumentException("Expected " + command + ", got: " + String.join(" ", tokens));
+        }
+    }
+
+    /**
+     * Parses an integer token.
+     *
+     * @param token the token
+     * @return its value
+     * @throws IllegalArgumentException if it is not an integer
+     */
+    static int parseInt(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number: " + token, e);
+        }
+    }
+}
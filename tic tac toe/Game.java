@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * Manages a single game of Tic-Tac-Toe, handling board, players, renderer, and win conditions.
  */
@@ -7,11 +9,15 @@ public class Game {
     private final Player playerX; // Player representing 'X'
     private final Player playerO; // Player representing 'O'
     private final Renderer renderer; // Renderer to display the board
+    private final GameClock clock; // Time control of the game, null when untimed
     private int winStreak = 3; // Default win streak requirement
 
     private Player nextTurn; // Tracks whose turn it is
 
     private Mark winnerMark = Mark.BLANK; // Tracks the winner's mark, initially BLANK
+    private Mark timedOutMark = Mark.BLANK; // Mark of the player who ran out of time, if any
+    private int[] moves = new int[16]; // Cells played so far, as row * size + column
+    private int moveCount = 0; // Number of moves played so far
 
     // Direction vectors for right, down, diagonal down-right, and diagonal down-left
     private static final int[][] DIRECTIONS = {
@@ -35,6 +41,7 @@ public class Game {
         this.playerX = playerX;
         this.board = new Board();
         this.renderer = renderer;
+        this.clock = null;
         this.nextTurn = playerX; // Player X starts by default
     }
 
@@ -48,15 +55,29 @@ public class Game {
      * @param renderer  Renderer to display the board
      */
     Game(Player playerX, Player playerO, int size, int winStreak, Renderer renderer) {
-        this.board = new Board(size);
+        this(playerX, playerO, size, winStreak, renderer, null);
+    }
+
+    /**
+     * Constructor for a timed game. A player who exceeds the clock loses the game.
+     *
+     * @param playerX   Player assigned to mark X
+     * @param playerO   Player assigned to mark O
+     * @param size      The board size (n x n)
+     * @param winStreak The number of consecutive marks required to win
+     * @param renderer  Renderer to display the board
+     * @param clock     The game clock, or null for an untimed game
+     */
+    Game(Player playerX, Player playerO, int size, int winStreak, Renderer renderer, GameClock clock) {
+        this.board = Board.forSize(size); // Sparse for very large boards
         if (winStreak <= size && winStreak >= 2) { // Ensure winStreak is within valid range
             this.winStreak = winStreak;
         }
         this.playerO = playerO;
         this.playerX = playerX;
         this.renderer = renderer;
+        this.clock = clock;
         this.nextTurn = playerX; // Player X starts by default
-
     }
 
     //====== GETTERS ======
@@ -80,7 +101,53 @@ public class Game {
     }
 
     /**
-     * Runs the game loop until a player wins or the board is full.
+     * Gets the mark of the player who lost on time, by exceeding the clock or by not moving.
+     *
+     * @return the flagged player's mark, or BLANK if nobody ran out of time
+     */
+    public Mark getTimedOutMark() {
+        return timedOutMark;
+    }
+
+    /**
+     * Gets the number of moves played so far.
+     *
+     * @return the move count
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the moves played so far, in order.
+     *
+     * @return a new array of the cells played, as row * size + column
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    /**
+     * Places the moves of an opening, alternating X and O from X, before the players take over.
+     * The opening must not complete a streak, as only the moves of the players are checked.
+     * Must be called before run.
+     *
+     * @param opening the cells to play, as row * size + column
+     */
+    void playOpening(int[] opening) {
+        int size = board.getSize();
+        Mark mark = Mark.X;
+        for (int cell : opening) {
+            board.putMark(mark, cell / size, cell % size);
+            recordMove();
+            mark = (mark == Mark.X) ? Mark.O : Mark.X;
+        }
+        nextTurn = (mark == Mark.X) ? playerX : playerO;
+    }
+
+    /**
+     * Runs the game loop until a player wins, the board is full, or a player runs out of time
+     * or fails to move.
      *
      * @return the Mark of the winner or BLANK if there is a draw
      */
@@ -88,19 +155,93 @@ public class Game {
         while (doesGameContinue()) {
             // Current player takes their turn
             Mark currentMark = (nextTurn == playerX) ? Mark.X : Mark.O;
-            nextTurn.playTurn(board, currentMark);
+            boolean inTime = playTurn(currentMark);
+            boolean moved = recordMove();
 
             // Render the board after each turn
             renderer.renderBoard(board);
 
+            if (!inTime || !moved) {
+                // The player flagged or gave up its turn, the opponent wins regardless of the position
+                timedOutMark = currentMark;
+                winnerMark = (currentMark == Mark.X) ? Mark.O : Mark.X;
+                break;
+            }
+
             // Switch turns to the other player
             switchTurns();
         }
         return winnerMark; // Returns the winning mark or BLANK if it’s a tie
     }
 
+    /**
+     * Checks whether the mark at a cell is part of a streak of at least winStreak marks.
+     * Only the four lines through the cell are examined, so this is the check to use
+     * right after placing a mark there.
+     *
+     * @param board     the board to inspect
+     * @param row       the row of the cell
+     * @param col       the column of the cell
+     * @param winStreak the number of consecutive marks required to win
+     * @return true if the cell completes a winning streak, false otherwise
+     */
+    static boolean completesStreak(Board board, int row, int col, int winStreak) {
+        Mark mark = board.getMark(row, col);
+        int size = board.getSize();
+        for (int[] direction : DIRECTIONS) {
+            int count = 1; // Start with the cell itself
+            for (int sign = -1; sign <= 1; sign += 2) {
+                int newRow = row + sign * direction[0];
+                int newCol = col + sign * direction[1];
+                while (count < winStreak && newRow >= 0 && newRow < size && newCol >= 0 && newCol < size
+                        && board.getMark(newRow, newCol) == mark) {
+                    count++;
+                    newRow += sign * direction[0];
+                    newCol += sign * direction[1];
+                }
+            }
+            if (count >= winStreak) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     //====== HELPERS ======
 
+    /**
+     * Lets the current player make a move, charging the time to the clock if the game is timed.
+     *
+     * @param currentMark the mark of the player to move
+     * @return true if the player moved within the time control, false if they flagged
+     */
+    private boolean playTurn(Mark currentMark) {
+        if (clock == null) {
+            nextTurn.playTurn(board, currentMark);
+            return true;
+        }
+        long start = System.nanoTime();
+        nextTurn.playTurn(board, currentMark, clock.moveDeadline(currentMark, start));
+        return clock.punch(currentMark, System.nanoTime() - start);
+    }
+
+    /**
+     * Appends the mark just placed, if any, to the list of moves.
+     *
+     * @return true if the player placed a mark, false if it failed to move, e.g. an engine
+     * that did not answer in time
+     */
+    private boolean recordMove() {
+        if (board.getStoneCount() == moveCount) {
+            return false;
+        }
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = board.getLastMove();
+        return true;
+    }
+
     /**
      * Switches the turn to the other player.
      */
@@ -119,65 +260,25 @@ public class Game {
     }
 
     /**
-     * Checks if there is a winning streak on the board.
+     * Checks if the last mark placed completed a winning streak.
+     * Only the lines through that mark can have changed since the previous check,
+     * so the cost does not depend on the board size.
      * Updates winnerMark if a winner is found.
      *
      * @return true if a player has won, false otherwise
      */
     private boolean isThereAWinner() {
-        for (int row = 0; row < board.getSize(); row++) {
-            for (int col = 0; col < board.getSize(); col++) {
-                if (board.getMark(row, col) != Mark.BLANK) {
-                    for (int[] direction : DIRECTIONS) {
-                        if (checkDirection(row, col, direction[0], direction[1])) {
-                            winnerMark = board.getMark(row, col); // Set winner's mark
-                            return true;
-                        }
-                    }
-                }
-            }
+        int lastMove = board.getLastMove();
+        if (lastMove == Board.NO_MOVE) {
+            return false; // No mark placed yet
         }
-        return false;
-    }
-
-    /**
-     * Checks if a winning streak exists starting from a given cell in a specific direction.
-     *
-     * @param row       the starting row
-     * @param col       the starting column
-     * @param rowDelta  the row increment direction
-     * @param colDelta  the column increment direction
-     * @return true if a winning streak is found in this direction, false otherwise
-     */
-    private boolean checkDirection(int row, int col, int rowDelta, int colDelta) {
-        Mark startMark = board.getMark(row, col);
-
-        for (int i = 1; i < winStreak; i++) {
-            int newRow = row + i * rowDelta;
-            int newCol = col + i * colDelta;
-
-            // Check bounds
-            if (isOutOfBounds(newRow, newCol)) {
-                return false;
-            }
-
-            // Check if the mark matches
-            if (board.getMark(newRow, newCol) != startMark) {
-                return false;
-            }
+        int row = lastMove / board.getSize();
+        int col = lastMove % board.getSize();
+        if (completesStreak(board, row, col, winStreak)) {
+            winnerMark = board.getMark(row, col); // Set winner's mark
+            return true;
         }
-        return true;  // All marks in this direction match
-    }
-
-    /**
-     * Checks if a cell is out of board bounds.
-     *
-     * @param row the row index
-     * @param col the column index
-     * @return true if the cell is out of bounds, false otherwise
-     */
-    private boolean isOutOfBounds(int row, int col) {
-        return row < 0 || row >= board.getSize() || col < 0 || col >= board.getSize();
+        return false;
     }
 
     /**
@@ -186,13 +287,7 @@ public class Game {
      * @return true if the game is a tie, false otherwise
      */
     private boolean isItATie() {
-        for (int row = 0; row < board.getSize(); row++) {
-            for (int col = 0; col < board.getSize(); col++) {
-                if (board.getMark(row, col) == Mark.BLANK) {
-                    return false; // If there's a blank spot, it's not a tie
-                }
-            }
-        }
-        return true; // No blank spots found, so it's a tie
+        long cells = (long) board.getSize() * board.getSize();
+        return board.getStoneCount() >= cells; // No blank spots left, so it's a tie
     }
 }
@@ -0,0 +1,116 @@
+/**
+ * Tracks the thinking time of both players in a single game.
+ * Each player starts with the same time budget and gains an increment after every move.
+ * A single move can additionally be capped by a fixed per-move limit.
+ */
+public class GameClock {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int MOVES_TO_GO = 20; // Moves the remaining time is spread over
+    private static final long UNLIMITED_NANOS = Long.MAX_VALUE / 4; // Budget of a clock without game time
+    static final long MAX_MILLIS = UNLIMITED_NANOS / NANOS_PER_MILLI; // Longest time, increment or move limit
+
+    private final long gameMillis; // Initial time budget of each player, 0 for none
+    private final long incrementMillis; // Increment as given, to build fresh clocks
+    private final long moveMillis; // Per-move limit as given, to build fresh clocks
+    private final long incrementNanos; // Time added after every completed move
+    private final long moveLimitNanos; // Hard limit for a single move, 0 for none
+    private long remainingX; // Time left for player X
+    private long remainingO; // Time left for player O
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a clock with the given time control.
+     *
+     * @param gameMillis      time budget of each player for the whole game in milliseconds, or 0 for none
+     * @param incrementMillis time added to a player's clock after each move, in milliseconds
+     * @param moveMillis      hard limit for a single move in milliseconds, or 0 for no limit
+     * @throws IllegalArgumentException if a value is negative or above MAX_MILLIS
+     */
+    GameClock(long gameMillis, long incrementMillis, long moveMillis) {
+        if (Math.min(gameMillis, Math.min(incrementMillis, moveMillis)) < 0
+                || Math.max(gameMillis, Math.max(incrementMillis, moveMillis)) > MAX_MILLIS) {
+            throw new IllegalArgumentException("Clock times must be between 0 and " + MAX_MILLIS + " ms");
+        }
+        this.gameMillis = gameMillis;
+        this.incrementMillis = incrementMillis;
+        this.moveMillis = moveMillis;
+        this.incrementNanos = incrementMillis * NANOS_PER_MILLI;
+        this.moveLimitNanos = moveMillis * NANOS_PER_MILLI;
+        long gameNanos = (gameMillis > 0) ? gameMillis * NANOS_PER_MILLI : UNLIMITED_NANOS;
+        this.remainingX = gameNanos;
+        this.remainingO = gameNanos;
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Gets the time left on a player's clock.
+     *
+     * @param mark the player's mark
+     * @return the remaining time in milliseconds
+     */
+    public long getRemainingMillis(Mark mark) {
+        return remaining(mark) / NANOS_PER_MILLI;
+    }
+
+    //====== CLOCK OPERATIONS ======
+
+    /**
+     * Creates a fresh clock with the same time control, for the next game.
+     *
+     * @return a new clock with both players at their full budget
+     */
+    public GameClock newGameClock() {
+        return new GameClock(gameMillis, incrementMillis, moveMillis);
+    }
+
+    /**
+     * Computes the deadline for the move a player is about to make.
+     * The player gets an even share of its remaining time plus the increment,
+     * but never more than the time actually left or the per-move limit.
+     *
+     * @param mark       the mark of the player to move
+     * @param startNanos the System.nanoTime() value at which the move starts
+     * @return the System.nanoTime() value by which the move should be made
+     */
+    public long moveDeadline(Mark mark, long startNanos) {
+        long remaining = remaining(mark);
+        long budget = Math.min(remaining, remaining / MOVES_TO_GO + incrementNanos);
+        if (moveLimitNanos > 0) {
+            budget = Math.min(budget, moveLimitNanos);
+        }
+        return startNanos + Math.max(budget, 0);
+    }
+
+    /**
+     * Charges a completed move to the player's clock.
+     *
+     * @param mark         the mark of the player who moved
+     * @param elapsedNanos the time the move took
+     * @return true if the player stayed within the time control, false if they flagged
+     */
+    public boolean punch(Mark mark, long elapsedNanos) {
+        long remaining = remaining(mark) - elapsedNanos;
+        boolean inTime = remaining >= 0 && (moveLimitNanos == 0 || elapsedNanos <= moveLimitNanos);
+        remaining = Math.min(remaining + incrementNanos, UNLIMITED_NANOS); // Increments never overflow
+        if (mark == Mark.X) {
+            remainingX = remaining;
+        } else {
+            remainingO = remaining;
+        }
+        return inTime;
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Returns the time left for the given mark in nanoseconds.
+     *
+     * @param mark the player's mark
+     * @return the remaining time in nanoseconds
+     */
+    private long remaining(Mark mark) {
+        return (mark == Mark.X) ? remainingX : remainingO;
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only binary file of finished games.
+ * Every record is laid out big-endian as: int size, int win streak, int round, byte winner
+ * ordinal, byte timed out mark ordinal, int move count, then one int cell per move
+ * (row * size + column), X moving first.
+ * <p>
+ * Writes go straight to the file channel and are made durable by force(), which the
+ * tournament calls once per checkpoint rather than once per game. Records are read back
+ * one at a time from a stream with read().
+ */
+class GameRecordFile implements AutoCloseable {
+    static final int HEADER_BYTES = 4 + 4 + 4 + 1 + 1 + 4; // Record bytes before the moves
+    private static final Mark[] MARKS = Mark.values(); // Marks by ordinal
+
+    /**
+     * One finished game read back from a record file.
+     */
+    static final class Record {
+        final int size; // Board size
+        final int winStreak; // Marks in a row needed to win
+        final int round; // Round number in its tournament
+        final Mark winner; // BLANK for a tie
+        final Mark timedOutMark; // BLANK unless a player lost on time
+        final int[] moves; // Cells played, X first
+
+        Record(int size, int winStreak, int round, Mark winner, Mark timedOutMark, int[] moves) {
+            this.size = size;
+            this.winStreak = winStreak;
+            this.round = round;
+            this.winner = winner;
+            this.timedOutMark = timedOutMark;
+            this.moves = moves;
+        }
+    }
+
+    private final FileChannel channel; // The open record file
+    private ByteBuffer buffer = ByteBuffer.allocate(256); // Reused to encode one record
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Opens a record file for appending, dropping everything after the given offset.
+     * Truncating to the offset of a checkpoint discards the games played after it.
+     *
+     * @param path   the file, created if missing
+     * @param offset the length to keep, 0 to start a new file
+     * @throws IOException if the file cannot be opened or truncated
+     */
+    GameRecordFile(Path path, long offset) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() < offset) {
+            channel.close();
+            throw new IOException("Record file " + path + " is shorter than its checkpoint");
+        }
+        channel.truncate(offset);
+        channel.position(offset);
+    }
+
+    //====== WRITING ======
+
+    /**
+     * Appends one finished game.
+     *
+     * @param game  the game, after its run() returned
+     * @param round the round number of the game in its tournament
+     * @param winner the winner returned by run(), BLANK for a tie
+     * @throws IOException if the write fails
+     */
+    void write(Game game, int round, Mark winner) throws IOException {
+        int[] moves = game.getMoves();
+        int length = HEADER_BYTES + 4 * moves.length;
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putInt(game.getBoardSize()).putInt(game.getWinStreak()).putInt(round)
+                .put((byte) winner.ordinal()).put((byte) game.getTimedOutMark().ordinal())
+                .putInt(moves.length);
+        for (int move : moves) {
+            buffer.putInt(move);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Gets the length of the file, the offset a checkpoint records.
+     *
+     * @return the number of bytes written so far
+     * @throws IOException if the position cannot be read
+     */
+    long getOffset() throws IOException {
+        return channel.position();
+    }
+
+    /**
+     * Forces the records written so far to the storage device.
+     *
+     * @throws IOException if the sync fails
+     */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //====== READING ======
+
+    /**
+     * Reads the next record of a record file.
+     *
+     * @param in a stream positioned at the start of a record, buffered for speed
+     * @return the record, or null at the end of the stream
+     * @throws IOException if the stream fails or ends inside a record
+     */
+    static Record read(DataInputStream in) throws IOException {
+        int size;
+        try {
+            size = in.readInt();
+        } catch (EOFException e) {
+            return null; // No record left
+        }
+        int winStreak = in.readInt();
+        int round = in.readInt();
+        Mark winner = markOf(in.readByte());
+        Mark timedOutMark = markOf(in.readByte());
+        int moveCount = in.readInt();
+        if (size < 1 || moveCount < 0 || moveCount > (long) size * size) {
+            throw new IOException("Corrupt game record in round " + round);
+        }
+        int[] moves = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            moves[i] = in.readInt();
+        }
+        return new Record(size, winStreak, round, winner, timedOutMark, moves);
+    }
+
+    private static Mark markOf(byte ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= MARKS.length) {
+            throw new IOException("Corrupt mark in game record: " + ordinal);
+        }
+        return MARKS[ordinal];
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local server hosting many concurrent games, each against a client connected over a socket.
+ * Every connection is a session running on its own virtual thread: the client asks for games
+ * with "newgame size winStreak mark opponent", plays its side through a NetworkPlayer, and the
+ * server plays the other side with a player of the requested type, see EngineProtocol.
+ * Requests for boards larger than MAX_SIZE, for win streaks outside [2, size] or for unknown
+ * opponents are answered with an error message, and the session goes on.
+ * <p>
+ * A session blocked waiting for its client holds no platform thread, only its virtual thread
+ * stack and two small I/O buffers, so idle sessions are cheap. Sessions share nothing but the
+ * counters, and a failing client only ends its own session.
+ */
+public class GameServer implements AutoCloseable {
+    private static final int BACKLOG = 4096; // Pending connections queued by the server socket
+    private static final int BUFFER_CHARS = 512; // Per-session I/O buffers, a position fits easily
+    private static final long DEFAULT_THINK_MILLIS = 1000; // Thinking time announced to clients
+    // Opponent types a client may ask for, players that block or own threads are excluded
+    private static final Set<String> OPPONENT_TYPES = Set.of("whatever", "clever", "genius", "search");
+    static final int MAX_SIZE = 32; // Largest board a client may ask for, bounds the memory and moves of a game
+    private static final int MIN_WIN_STREAK = 2; // Game would replace shorter streaks with its default
+
+    private final ServerSocket serverSocket; // Accepts the client connections
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final PlayerFactory playerFactory; // Builds the server side players
+    private final long thinkMillis; // Thinking time announced to clients, also their read timeout
+    private final AtomicInteger activeSessions = new AtomicInteger(); // Connected clients
+    private final LongAdder gamesPlayed = new LongAdder(); // Games finished in all sessions
+    private final LongAdder failedSessions = new LongAdder(); // Sessions ended by a client error
+    private Thread acceptor; // Accepts connections until the server is closed
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a server listening on the loopback interface.
+     *
+     * @param port          the port to listen on, 0 for any free port
+     * @param playerFactory builds the server side players
+     * @param thinkMillis   thinking time per move announced to clients, also how long the server
+     *                      waits for a move before ending the session
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, PlayerFactory playerFactory, long thinkMillis) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.playerFactory = playerFactory;
+        this.thinkMillis = thinkMillis;
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of clients currently connected.
+     *
+     * @return the active session count
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Gets the number of games finished so far.
+     *
+     * @return the finished game count
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed.sum();
+    }
+
+    /**
+     * Gets the number of sessions ended by a client error, such as an illegal move or a timeout.
+     *
+     * @return the failed session count
+     */
+    public long getFailedSessions() {
+        return failedSessions.sum();
+    }
+
+    //====== LIFECYCLE ======
+
+    /**
+     * Starts accepting connections in the background.
+     */
+    public void start() {
+        acceptor = Thread.ofVirtual().name("game-server-acceptor").start(this::acceptConnections);
+    }
+
+    /**
+     * Stops accepting connections and ends every session.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow(); // Interrupting a virtual thread closes the socket it is blocked on
+        try {
+            sessions.awaitTermination(thinkMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Accepts connections until the server socket is closed, starting a session for each.
+     */
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> runSession(socket));
+            } catch (IOException e) {
+                return; // The server was closed
+            }
+        }
+    }
+
+    /**
+     * Plays the games a client asks for, until it quits or disconnects.
+     *
+     * @param socket the client connection
+     */
+    private void runSession(Socket socket) {
+        activeSessions.incrementAndGet();
+        try (socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), BUFFER_CHARS);
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), BUFFER_CHARS)) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, 2 * thinkMillis));
+            NetworkPlayer client = new NetworkPlayer(reader, writer, thinkMillis);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = EngineProtocol.tokenize(line);
+                if (tokens[0].equals(EngineProtocol.QUIT)) {
+                    break;
+                }
+                String refusal = checkGameRequest(tokens);
+                if (refusal != null) {
+                    writer.write(EngineProtocol.formatError(refusal));
+                    writer.write('\n');
+                    writer.flush();
+                    continue;
+                }
+                Mark winner = playGame(tokens, client);
+                writer.write(EngineProtocol.formatResult(winner));
+                writer.write('\n');
+                writer.flush();
+                gamesPlayed.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedSessions.increment(); // Only this session ends
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks whether the server plays the game a message asks for.
+     *
+     * @param tokens the tokens of the message
+     * @return null for a valid newgame message, otherwise why it is refused
+     */
+    private static String checkGameRequest(String[] tokens) {
+        try {
+            EngineProtocol.expect(tokens, EngineProtocol.NEW_GAME, 5);
+            int size = EngineProtocol.parseInt(tokens[1]);
+            int winStreak = EngineProtocol.parseInt(tokens[2]);
+            EngineProtocol.parseMark(tokens[3]);
+            if (size < 1 || size > MAX_SIZE) {
+                return "Board size must be between 1 and " + MAX_SIZE;
+            }
+            if (winStreak < MIN_WIN_STREAK || winStreak > size) {
+                return "Win streak must be between " + MIN_WIN_STREAK + " and the board size";
+            }
+            if (!OPPONENT_TYPES.contains(tokens[4])) {
+                return "Unknown opponent: " + tokens[4];
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Plays one game requested by a newgame message checked by checkGameRequest.
+     *
+     * @param tokens the tokens of the newgame message
+     * @param client the client's player
+     * @return the winner, BLANK for a tie
+     */
+    private Mark playGame(String[] tokens, Player client) {
+        int size = EngineProtocol.parseInt(tokens[1]);
+        int winStreak = EngineProtocol.parseInt(tokens[2]);
+        Mark clientMark = EngineProtocol.parseMark(tokens[3]);
+        Player opponent = playerFactory.buildPlayer(tokens[4], winStreak);
+        Player playerX = (clientMark == Mark.X) ? client : opponent;
+        Player playerO = (clientMark == Mark.X) ? opponent : client;
+        return new Game(playerX, playerO, size, winStreak, new VoidRenderer()).run();
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args Command-line arguments: [port] [think millis], both optional
+     * @throws IOException if the port cannot be bound
+     * @throws InterruptedException if interrupted while serving
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 0;
+        long thinkMillis = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_THINK_MILLIS;
+        GameServer server = new GameServer(port, new PlayerFactory(), thinkMillis);
+        server.start();
+        System.out.println("Game server listening on " + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + server.getPort());
+        server.acceptor.join();
+    }
+}
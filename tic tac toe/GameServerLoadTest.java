@@ -0,0 +1,184 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of GameServer with loopback clients, one virtual thread each.
+ * Every client connects first, then all of them play their games at the same time,
+ * picking random moves. A move's latency is the time from sending a move, or the game
+ * request, to receiving the server's next move request, so it covers the server's
+ * processing and its own player's move.
+ * <p>
+ * Run with: java GameServerLoadTest [clients] [games per client] [size] [win streak] [opponent]
+ * Each client uses two file descriptors in this process, so 10,000 clients need a limit of
+ * at least 20,000 open files.
+ */
+public class GameServerLoadTest {
+    private static final int BUFFER_CHARS = 512; // Client I/O buffers
+    private static final int READ_TIMEOUT_MILLIS = 60_000; // Gives up on a stuck server
+    private static final long NANOS_PER_MICRO = 1_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final int clients; // Concurrent connections
+    private final int gamesPerClient; // Games each client plays in a row
+    private final int size; // Board size of every game
+    private final int winStreak; // Win streak of every game
+    private final String opponent; // Type of the server side player
+    private final Queue<long[]> latencies = new ConcurrentLinkedQueue<>(); // Per client, in nanoseconds
+    private final LongAdder failures = new LongAdder(); // Clients that hit an error
+
+    /**
+     * Constructs a load test.
+     */
+    GameServerLoadTest(int clients, int gamesPerClient, int size, int winStreak, String opponent) {
+        this.clients = clients;
+        this.gamesPerClient = gamesPerClient;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.opponent = opponent;
+    }
+
+    /**
+     * Runs the test against a server and prints the throughput and latency figures.
+     *
+     * @param server a started server
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    void run(GameServer server) throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int id = i;
+                executor.execute(() -> runClient(server.getPort(), id, connected, start));
+            }
+            connected.await();
+            System.out.println(clients + " clients connected, " + server.getActiveSessions() + " sessions started");
+            begin = System.nanoTime();
+            start.countDown();
+        } // Waits for every client
+        long elapsed = System.nanoTime() - begin;
+        printReport(server, elapsed);
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Connects, waits for the start signal and plays the client's games.
+     */
+    private void runClient(int port, int id, CountDownLatch connected, CountDownLatch start) {
+        long[] times = new long[16];
+        int count = 0;
+        boolean counted = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), BUFFER_CHARS);
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), BUFFER_CHARS)) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            connected.countDown();
+            counted = true;
+            start.await();
+            Player engine = new WhateverPlayer();
+            engine.setSeed(id);
+            for (int game = 0; game < gamesPerClient; game++) {
+                Mark mark = ((id + game) % 2 == 0) ? Mark.X : Mark.O;
+                send(writer, EngineProtocol.NEW_GAME + " " + size + " " + winStreak + " "
+                        + EngineProtocol.formatMark(mark) + " " + opponent);
+                long sent = System.nanoTime();
+                Board board = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] tokens = EngineProtocol.tokenize(line);
+                    if (tokens[0].equals(EngineProtocol.POSITION)) {
+                        board = EngineProtocol.parsePosition(tokens);
+                    } else if (tokens[0].equals(EngineProtocol.GO) && board != null) {
+                        if (count == times.length) {
+                            times = Arrays.copyOf(times, count * 2);
+                        }
+                        times[count++] = System.nanoTime() - sent;
+                        engine.playTurn(board, EngineProtocol.parseMark(tokens[1]));
+                        int move = board.getLastMove();
+                        send(writer, EngineProtocol.formatBestMove(move / size, move % size));
+                        sent = System.nanoTime();
+                    } else if (tokens[0].equals(EngineProtocol.RESULT)) {
+                        break;
+                    } else if (tokens[0].equals(EngineProtocol.ERROR)) {
+                        throw new IllegalStateException("Game refused: " + line);
+                    }
+                }
+            }
+            send(writer, EngineProtocol.QUIT);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!counted) {
+                connected.countDown(); // Do not hold the other clients back
+            }
+            latencies.add(Arrays.copyOf(times, count));
+        }
+    }
+
+    private static void send(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Prints the throughput and the latency percentiles.
+     */
+    private void printReport(GameServer server, long elapsedNanos) {
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = elapsedNanos / NANOS_PER_SECOND;
+        System.out.printf("%d clients, %d games finished, %d failed clients, %d failed sessions%n",
+                clients, server.getGamesPlayed(), failures.sum(), server.getFailedSessions());
+        System.out.printf("%d client moves in %.2f s: %.0f moves/sec%n", all.length, seconds, all.length / seconds);
+        if (all.length > 0) {
+            System.out.printf("Move latency: p50 %d us, p99 %d us, max %d us%n",
+                    percentile(all, 0.50) / NANOS_PER_MICRO, percentile(all, 0.99) / NANOS_PER_MICRO,
+                    all[all.length - 1] / NANOS_PER_MICRO);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Starts a server and runs the load test against it.
+     *
+     * @param args Command-line arguments:
+     *             [clients] [games per client] [size] [win streak] [opponent], all optional
+     * @throws IOException if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int size = (args.length > 2) ? Integer.parseInt(args[2]) : 3;
+        int winStreak = (args.length > 3) ? Integer.parseInt(args[3]) : 3;
+        String opponent = (args.length > 4) ? args[4] : "whatever";
+        try (GameServer server = new GameServer(0, new PlayerFactory(), READ_TIMEOUT_MILLIS)) {
+            server.start();
+            new GameServerLoadTest(clients, games, size, winStreak, opponent).run(server);
+        }
+    }
+}
@@ -12,6 +12,16 @@ public class GeniusPlayer implements Player {
         // No parameters as specified in instructions
     }
 
+    /**
+     * Reseeds the random generator, so that the following moves can be reproduced.
+     *
+     * @param seed the new seed
+     */
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * Randomly selects an empty cell on the board and places the mark.
      *
@@ -44,24 +54,26 @@ public class GeniusPlayer implements Player {
         int size = board.getSize();
         Mark opponentMark = (mark == Mark.X) ? Mark.O : Mark.X;
 
+        // Only empty cells near the stones can complete a streak, so only the frontier is scanned
         // Check for a winning move first
-        for (int row = 0; row < size; row++) {
-            for (int column = 0; column < size; column++) {
-                if (board.getMark(row, column) == Mark.BLANK && isWinningMove(board, row, column, mark)) {
-                    board.putMark(mark, row, column); // Win the game
-                    return true; // Winning move found
-                }
+        for (int i = 0; i < board.getFrontierSize(); i++) {
+            int cell = board.getFrontierCell(i);
+            int row = cell / size;
+            int column = cell % size;
+            if (isWinningMove(board, row, column, mark)) {
+                board.putMark(mark, row, column); // Win the game
+                return true; // Winning move found
             }
         }
 
         // If no winning move, check for a blocking move
-        for (int row = 0; row < size; row++) {
-            for (int column = 0; column < size; column++) {
-                if (board.getMark(row, column) == Mark.BLANK &&
-                        isWinningMove(board, row, column, opponentMark)) {
-                    board.putMark(mark, row, column); // Block the opponent
-                    return true; // Blocking move found
-                }
+        for (int i = 0; i < board.getFrontierSize(); i++) {
+            int cell = board.getFrontierCell(i);
+            int row = cell / size;
+            int column = cell % size;
+            if (isWinningMove(board, row, column, opponentMark)) {
+                board.putMark(mark, row, column); // Block the opponent
+                return true; // Blocking move found
             }
         }
 
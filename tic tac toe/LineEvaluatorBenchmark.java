@@ -0,0 +1,115 @@
+import java.util.Random;
+
+/**
+ * Micro-benchmark comparing the incremental LineEvaluator with a from-scratch evaluation.
+ * Each measured operation places a mark on a random empty cell, reads the score, and removes
+ * the mark again, on a board pre-filled with random stones. The helpers are shared with
+ * NeuralEvaluatorBenchmark, which measures any PositionEvaluator the same way.
+ */
+public class LineEvaluatorBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final long SEED = 42;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args [size] [win_streak] [stones on the board]
+     */
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 19;
+        int winStreak = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        int stones = (args.length > 2) ? Integer.parseInt(args[2]) : size * size / 4;
+
+        Board board = randomBoard(size, stones, new Random(SEED));
+        int[] empty = emptyCells(board);
+        LineEvaluator evaluator = new LineEvaluator(board, winStreak);
+        if (evaluator.evaluate(Mark.X) != LineEvaluator.evaluateFromScratch(board, winStreak, Mark.X)) {
+            throw new IllegalStateException("Incremental and from-scratch evaluations disagree");
+        }
+
+        runIncremental(board, evaluator, empty, WARMUP_ITERATIONS);
+        long start = System.nanoTime();
+        long checksum = runIncremental(board, evaluator, empty, MEASURED_ITERATIONS);
+        report("incremental", System.nanoTime() - start, MEASURED_ITERATIONS, checksum);
+
+        int scratchIterations = MEASURED_ITERATIONS / 100; // Orders of magnitude slower
+        runFromScratch(board, winStreak, empty, scratchIterations / 10);
+        start = System.nanoTime();
+        checksum = runFromScratch(board, winStreak, empty, scratchIterations);
+        report("from scratch", System.nanoTime() - start, scratchIterations, checksum);
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Builds a board holding the given number of stones on random cells, X and O alternating.
+     */
+    static Board randomBoard(int size, int stones, Random random) {
+        Board board = new Board(size);
+        for (int placed = 0; placed < stones; ) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (board.getMark(row, col) == Mark.BLANK) {
+                board.putMark((placed % 2 == 0) ? Mark.X : Mark.O, row, col);
+                placed++;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Places, scores and removes a mark the given number of times, updating the evaluator incrementally.
+     *
+     * @return a checksum of the scores, which keeps the JIT compiler from dropping the work
+     */
+    static long runIncremental(Board board, PositionEvaluator evaluator, int[] empty, int iterations) {
+        int size = board.getSize();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            int cell = empty[i % empty.length];
+            Mark mark = (i % 2 == 0) ? Mark.X : Mark.O;
+            board.putMark(mark, cell / size, cell % size);
+            evaluator.place(cell / size, cell % size, mark);
+            checksum += evaluator.evaluate(mark);
+            board.removeMark(cell / size, cell % size);
+            evaluator.remove(cell / size, cell % size, mark);
+        }
+        return checksum;
+    }
+
+    private static long runFromScratch(Board board, int winStreak, int[] empty, int iterations) {
+        int size = board.getSize();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            int cell = empty[i % empty.length];
+            Mark mark = (i % 2 == 0) ? Mark.X : Mark.O;
+            board.putMark(mark, cell / size, cell % size);
+            checksum += LineEvaluator.evaluateFromScratch(board, winStreak, mark);
+            board.removeMark(cell / size, cell % size);
+        }
+        return checksum;
+    }
+
+    static int[] emptyCells(Board board) {
+        int size = board.getSize();
+        int count = 0;
+        int[] cells = new int[size * size];
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.getMark(cell / size, cell % size) == Mark.BLANK) {
+                cells[count++] = cell;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(cells, 0, result, 0, count);
+        return result;
+    }
+
+    static void report(String name, long elapsedNanos, int iterations, long checksum) {
+        System.out.printf("%-15s %8.1f ns/op  %12.0f evaluations/sec  (%d ops, checksum %d)%n",
+                name, (double) elapsedNanos / iterations, iterations * NANOS_PER_SECOND / elapsedNanos,
+                iterations, checksum);
+    }
+}
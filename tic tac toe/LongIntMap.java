@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from non-negative long keys to int values, without boxing.
+ * Used where only a few entries of a huge key space are ever present, such as the occupied
+ * cells of a sparse board. Collisions are resolved by linear probing, and removals shift the
+ * following entries back, so lookups never have to skip deleted slots.
+ */
+class LongIntMap {
+    private static final long EMPTY = -1; // Marks a free slot, keys are never negative
+    private static final int MIN_CAPACITY = 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L; // Fibonacci hashing
+
+    private long[] keys; // Slot keys, EMPTY for free slots
+    private int[] values; // Slot values
+    private int size; // Number of entries
+    private int shift; // 64 minus log2 of the capacity
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs an empty map.
+     */
+    LongIntMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    //====== MAP OPERATIONS ======
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the entry count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Looks a key up.
+     *
+     * @param key          a non-negative key
+     * @param defaultValue the value to return if the key is absent
+     * @return the value of the key, or defaultValue
+     */
+    int get(long key, int defaultValue) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key); ; slot = (slot + 1) & mask) {
+            long stored = keys[slot];
+            if (stored == key) {
+                return values[slot];
+            }
+            if (stored == EMPTY) {
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key, adding the key if it is absent.
+     *
+     * @param key   a non-negative key
+     * @param value the value to store
+     */
+    void put(long key, int value) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                rehash(keys.length * 2); // Keep the load factor at most one half
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Adds a delta to the value of a key, treating an absent key as 0.
+     * The key is removed when its value drops to 0.
+     *
+     * @param key   a non-negative key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    int add(long key, int delta) {
+        int value = get(key, 0) + delta;
+        if (value == 0) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key a non-negative key
+     */
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return; // Not present
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift back the following entries that would otherwise become unreachable
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long nextKey = keys[next];
+            if (nextKey == EMPTY) {
+                break;
+            }
+            int ideal = slotOf(nextKey);
+            boolean reachableFromHole = (next > slot) ? (ideal <= slot || ideal > next)
+                    : (ideal <= slot && ideal > next);
+            if (reachableFromHole) {
+                keys[slot] = nextKey;
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Copies the keys into an array, in no particular order.
+     *
+     * @return a new array holding every key
+     */
+    long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    //====== HELPERS ======
+
+    private int slotOf(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
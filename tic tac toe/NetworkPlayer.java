@@ -0,0 +1,93 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Represents a player whose moves come from a client over a connection, see EngineProtocol.
+ * Before every move the full position and a "go" message are sent, and the client answers
+ * with "bestmove". The connection's read timeout bounds how long the player waits.
+ * <p>
+ * A client that disconnects, times out or sends an illegal move makes playTurn throw,
+ * which ends that client's game without affecting any other.
+ */
+class NetworkPlayer implements Player {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final BufferedReader reader; // Lines from the client
+    private final Writer writer; // Lines to the client
+    private final long thinkMillis; // Thinking time announced when the game is untimed
+
+    /**
+     * Constructs a player talking to a client.
+     *
+     * @param reader      buffered input from the client
+     * @param writer      output to the client, flushed after every request
+     * @param thinkMillis thinking time announced to the client when the game is untimed
+     */
+    NetworkPlayer(BufferedReader reader, Writer writer, long thinkMillis) {
+        this.reader = reader;
+        this.writer = writer;
+        this.thinkMillis = thinkMillis;
+    }
+
+    /**
+     * Asks the client for a move and places its mark.
+     *
+     * @param board The current game board where the move will be made.
+     * @param mark  The mark (X or O) representing the player making the move.
+     * @throws UncheckedIOException  if the connection fails or times out
+     * @throws IllegalStateException if the client's answer is not a legal move
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        requestMove(board, mark, thinkMillis);
+    }
+
+    /**
+     * Asks the client for a move within the time left until the deadline and places its mark.
+     *
+     * @param board         The current game board where the move will be made.
+     * @param mark          The mark (X or O) representing the player making the move.
+     * @param deadlineNanos The System.nanoTime() value by which the move should be made.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark, long deadlineNanos) {
+        long millis = Math.max(0, (deadlineNanos - System.nanoTime()) / NANOS_PER_MILLI);
+        requestMove(board, mark, millis);
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Sends the position and the go message, then applies the answer.
+     */
+    private void requestMove(Board board, Mark mark, long millis) {
+        String answer;
+        try {
+            writer.write(EngineProtocol.formatPosition(board));
+            writer.write('\n');
+            writer.write(EngineProtocol.formatGo(mark, millis));
+            writer.write('\n');
+            writer.flush();
+            answer = reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (answer == null) {
+            throw new UncheckedIOException(new IOException("Client disconnected"));
+        }
+        int[] move;
+        try {
+            move = EngineProtocol.parseBestMove(EngineProtocol.tokenize(answer));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        if (move == null) {
+            return; // The client gave up its turn
+        }
+        if (!board.putMark(mark, move[0], move[1])) {
+            throw new IllegalStateException("Illegal move: " + answer);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Evaluates positions with a NeuralNetwork, updating its first layer incrementally.
+ * <p>
+ * The evaluator keeps one accumulator per player: the hidden units of the network before
+ * clipping, from that player's point of view. Placing or removing a mark adds or subtracts one
+ * row of hidden weights to each accumulator, O(hidden), instead of recomputing the layer from
+ * every mark on the board. Reading the score clips both accumulators and takes their dot product
+ * with the output weights, O(hidden). Neither allocates, and all arithmetic is on ints, in plain
+ * loops over primitive arrays that the JIT compiler vectorizes.
+ */
+class NeuralEvaluator implements PositionEvaluator {
+
+    private final int size; // The board size
+    private final int cells; // Cells of the board, the offset of the opponent features
+    private final int hidden; // Hidden units per point of view
+    private final short[] hiddenWeights; // The network's, hiddenWeights[feature * hidden + unit]
+    private final short[] outputWeights; // The network's, player to move first
+    private final int outputBias; // The network's
+    private final int[] accumulatorX; // Hidden units before clipping, from X's point of view
+    private final int[] accumulatorO; // Hidden units before clipping, from O's point of view
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs an evaluator for the current position of a board.
+     *
+     * @param network the network, trained for the size of the board
+     * @param board   the board to evaluate
+     * @throws IllegalArgumentException if the network was trained for another board size
+     */
+    NeuralEvaluator(NeuralNetwork network, Board board) {
+        if (network.size != board.getSize()) {
+            throw new IllegalArgumentException("The network was trained for " + network.size + "x"
+                    + network.size + " boards, not " + board.getSize() + "x" + board.getSize());
+        }
+        this.size = network.size;
+        this.cells = size * size;
+        this.hidden = network.hidden;
+        this.hiddenWeights = network.hiddenWeights;
+        this.outputWeights = network.outputWeights;
+        this.outputBias = network.outputBias;
+        this.accumulatorX = new int[hidden];
+        this.accumulatorO = new int[hidden];
+        refresh(network, board);
+    }
+
+    //====== EVALUATION ======
+
+    /**
+     * Recomputes both accumulators from every mark on the board, as after construction.
+     *
+     * @param network the network this evaluator was built with
+     * @param board   the board to evaluate
+     */
+    void refresh(NeuralNetwork network, Board board) {
+        for (int unit = 0; unit < hidden; unit++) {
+            accumulatorX[unit] = network.hiddenBiases[unit];
+            accumulatorO[unit] = network.hiddenBiases[unit];
+        }
+        for (int cell : board.getOccupiedCells()) {
+            place(cell / size, cell % size, board.getMark(cell / size, cell % size));
+        }
+    }
+
+    @Override
+    public int evaluate(Mark side) {
+        int[] own = (side == Mark.X) ? accumulatorX : accumulatorO;
+        int[] opponent = (side == Mark.X) ? accumulatorO : accumulatorX;
+        int sum = 0;
+        for (int unit = 0; unit < hidden; unit++) {
+            int ownActivation = Math.min(Math.max(own[unit], 0), NeuralNetwork.ACTIVATION_SCALE);
+            int opponentActivation = Math.min(Math.max(opponent[unit], 0), NeuralNetwork.ACTIVATION_SCALE);
+            sum += ownActivation * outputWeights[unit] + opponentActivation * outputWeights[hidden + unit];
+        }
+        long score = (sum + (long) outputBias) * NeuralNetwork.SCORE_SCALE
+                / (NeuralNetwork.ACTIVATION_SCALE * NeuralNetwork.OUTPUT_WEIGHT_SCALE);
+        return (int) Math.max(-LineEvaluator.MAX_SCORE, Math.min(LineEvaluator.MAX_SCORE, score));
+    }
+
+    @Override
+    public void place(int row, int col, Mark mark) {
+        int cell = row * size + col;
+        int xFeature = (mark == Mark.X) ? cell : cells + cell;
+        int oFeature = (mark == Mark.O) ? cell : cells + cell;
+        add(accumulatorX, xFeature * hidden);
+        add(accumulatorO, oFeature * hidden);
+    }
+
+    @Override
+    public void remove(int row, int col, Mark mark) {
+        int cell = row * size + col;
+        int xFeature = (mark == Mark.X) ? cell : cells + cell;
+        int oFeature = (mark == Mark.O) ? cell : cells + cell;
+        subtract(accumulatorX, xFeature * hidden);
+        subtract(accumulatorO, oFeature * hidden);
+    }
+
+    //====== HELPERS ======
+
+    private void add(int[] accumulator, int offset) {
+        for (int unit = 0; unit < hidden; unit++) {
+            accumulator[unit] += hiddenWeights[offset + unit];
+        }
+    }
+
+    private void subtract(int[] accumulator, int offset) {
+        for (int unit = 0; unit < hidden; unit++) {
+            accumulator[unit] -= hiddenWeights[offset + unit];
+        }
+    }
+}
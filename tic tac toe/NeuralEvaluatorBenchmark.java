@@ -0,0 +1,87 @@
+import java.util.Random;
+
+/**
+ * Micro-benchmark of the NeuralEvaluator, updated incrementally and recomputed from scratch,
+ * against the incremental LineEvaluator. Each measured operation places a mark on a random empty
+ * cell, reads the score, and removes the mark again, on a board pre-filled with random stones.
+ * The network has random weights, which cost the same to evaluate as trained ones.
+ * The board, the timing loop and the report are those of LineEvaluatorBenchmark.
+ */
+public class NeuralEvaluatorBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final long SEED = 42;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args [size] [win_streak] [hidden units] [stones on the board]
+     */
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 15;
+        int winStreak = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        int hidden = (args.length > 2) ? Integer.parseInt(args[2]) : 32;
+        int stones = (args.length > 3) ? Integer.parseInt(args[3]) : size * size / 4;
+
+        Random random = new Random(SEED);
+        NeuralNetwork network = randomNetwork(size, winStreak, hidden, random);
+        Board board = LineEvaluatorBenchmark.randomBoard(size, stones, random);
+        int[] empty = LineEvaluatorBenchmark.emptyCells(board);
+        NeuralEvaluator evaluator = new NeuralEvaluator(network, board);
+        LineEvaluatorBenchmark.runIncremental(board, evaluator, empty, WARMUP_ITERATIONS);
+        int incremental = evaluator.evaluate(Mark.X);
+        if (incremental != new NeuralEvaluator(network, board).evaluate(Mark.X)) {
+            throw new IllegalStateException("Incremental and from-scratch evaluations disagree");
+        }
+
+        long start = System.nanoTime();
+        long checksum = LineEvaluatorBenchmark.runIncremental(board, evaluator, empty, MEASURED_ITERATIONS);
+        LineEvaluatorBenchmark.report("neural", System.nanoTime() - start, MEASURED_ITERATIONS, checksum);
+
+        int scratchIterations = MEASURED_ITERATIONS / 10; // Touches every stone instead of one
+        runFromScratch(board, network, evaluator, empty, scratchIterations / 10);
+        start = System.nanoTime();
+        checksum = runFromScratch(board, network, evaluator, empty, scratchIterations);
+        LineEvaluatorBenchmark.report("neural scratch", System.nanoTime() - start, scratchIterations, checksum);
+
+        LineEvaluator lineEvaluator = new LineEvaluator(board, winStreak);
+        LineEvaluatorBenchmark.runIncremental(board, lineEvaluator, empty, WARMUP_ITERATIONS);
+        start = System.nanoTime();
+        checksum = LineEvaluatorBenchmark.runIncremental(board, lineEvaluator, empty, MEASURED_ITERATIONS);
+        LineEvaluatorBenchmark.report("line", System.nanoTime() - start, MEASURED_ITERATIONS, checksum);
+    }
+
+    //====== HELPERS ======
+
+    private static NeuralNetwork randomNetwork(int size, int winStreak, int hidden, Random random) {
+        short[] hiddenWeights = new short[2 * size * size * hidden];
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            hiddenWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        short[] hiddenBiases = new short[hidden];
+        for (int unit = 0; unit < hidden; unit++) {
+            hiddenBiases[unit] = (short) random.nextInt(NeuralNetwork.ACTIVATION_SCALE);
+        }
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        return new NeuralNetwork(size, winStreak, hidden, hiddenWeights, hiddenBiases, outputWeights, 0);
+    }
+
+    private static long runFromScratch(Board board, NeuralNetwork network, NeuralEvaluator evaluator, int[] empty,
+                                       int iterations) {
+        int size = board.getSize();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            int cell = empty[i % empty.length];
+            Mark mark = (i % 2 == 0) ? Mark.X : Mark.O;
+            board.putMark(mark, cell / size, cell % size);
+            evaluator.refresh(network, board);
+            checksum += evaluator.evaluate(mark);
+            board.removeMark(cell / size, cell % size);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The quantized weights of a small NNUE-style network that evaluates positions of one board size,
+ * for NeuralEvaluator.
+ * <p>
+ * The network looks at the board from the point of view of each player in turn: input feature
+ * cell is an own mark on that cell, input feature cells + cell an opponent mark on it. Both views
+ * go through the same hidden layer, whose units are clipped to [0, 1], and a single output unit
+ * combines the hidden units of the player to move with those of the opponent.
+ * <p>
+ * All weights are 16-bit integers. Hidden weights and biases are scaled by ACTIVATION_SCALE,
+ * output weights by OUTPUT_WEIGHT_SCALE, and the output bias, an int, by both, so that inference
+ * needs integer arithmetic only. The file is laid out big-endian as: int magic, int version,
+ * int board size, int win streak, int hidden units, the hidden weights feature by feature,
+ * the hidden biases, the output weights of the player to move then of the opponent, and the
+ * output bias.
+ */
+final class NeuralNetwork {
+    static final int ACTIVATION_SCALE = 255; // A hidden activation of 1
+    static final int OUTPUT_WEIGHT_SCALE = 64; // An output weight of 1
+    static final int SCORE_SCALE = 1000; // Evaluation score of a network output of 1
+    static final int MAX_HIDDEN = 64; // Keeps the output sum within an int
+    private static final int MAX_SIZE = 64; // Largest board size accepted from a file
+    private static final int MAGIC = 0x4E4E5545; // "NNUE"
+    private static final int VERSION = 1;
+
+    final int size; // Board size the network was trained for
+    final int winStreak; // Win streak the network was trained for
+    final int hidden; // Hidden units per point of view
+    final short[] hiddenWeights; // hiddenWeights[feature * hidden + unit]
+    final short[] hiddenBiases; // One per hidden unit
+    final short[] outputWeights; // Units of the player to move, then of the opponent
+    final int outputBias; // Scaled by ACTIVATION_SCALE * OUTPUT_WEIGHT_SCALE
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a network from its quantized weights, which are used without copying.
+     *
+     * @param size          the board size
+     * @param winStreak     the win streak
+     * @param hidden        the number of hidden units, at most MAX_HIDDEN
+     * @param hiddenWeights the hidden weights, 2 * size * size * hidden of them, feature by feature
+     * @param hiddenBiases  the hidden biases
+     * @param outputWeights the output weights, 2 * hidden of them
+     * @param outputBias    the output bias
+     * @throws IllegalArgumentException if the dimensions do not match
+     */
+    NeuralNetwork(int size, int winStreak, int hidden, short[] hiddenWeights, short[] hiddenBiases,
+                  short[] outputWeights, int outputBias) {
+        if (size < 1 || hidden < 1 || hidden > MAX_HIDDEN) {
+            throw new IllegalArgumentException("Invalid network dimensions " + size + "x" + size
+                    + " with " + hidden + " hidden units");
+        }
+        if (hiddenWeights.length != 2 * size * size * hidden || hiddenBiases.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Weight counts do not match the network dimensions");
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.hidden = hidden;
+        this.hiddenWeights = hiddenWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    //====== FILES ======
+
+    /**
+     * Loads a network from a file.
+     *
+     * @param path the file
+     * @return the network
+     * @throws IOException              if the file cannot be read or is truncated
+     * @throws IllegalArgumentException if the file is not a network file of this version
+     */
+    static NeuralNetwork load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException(path + " is not a network file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(path + " has unsupported version " + version);
+            }
+            int size = in.readInt();
+            int winStreak = in.readInt();
+            int hidden = in.readInt();
+            if (size < 1 || size > MAX_SIZE || hidden < 1 || hidden > MAX_HIDDEN) {
+                throw new IllegalArgumentException(path + " has invalid dimensions");
+            }
+            short[] hiddenWeights = readShorts(in, 2 * size * size * hidden);
+            short[] hiddenBiases = readShorts(in, hidden);
+            short[] outputWeights = readShorts(in, 2 * hidden);
+            int outputBias = in.readInt();
+            return new NeuralNetwork(size, winStreak, hidden, hiddenWeights, hiddenBiases, outputWeights,
+                    outputBias);
+        }
+    }
+
+    /**
+     * Saves the network to a file, replacing it if it exists.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be written
+     */
+    void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(winStreak);
+            out.writeInt(hidden);
+            writeShorts(out, hiddenWeights);
+            writeShorts(out, hiddenBiases);
+            writeShorts(out, outputWeights);
+            out.writeInt(outputBias);
+        }
+    }
+
+    //====== HELPERS ======
+
+    private static short[] readShorts(DataInputStream in, int count) throws IOException {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readShort();
+        }
+        return values;
+    }
+
+    private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+        for (short value : values) {
+            out.writeShort(value);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trains a NeuralNetwork for one board size and win streak, and saves it for the "neural" players of PlayerFactory.
+ * <p>
+ * Training positions come from games of fixed-depth AlphaBetaSearch players against each other,
+ * starting from a few random moves and with an occasional random move, so that the positions
+ * are varied. Each position is labeled, from the point of view of the player to move, with a
+ * blend of the game result and of the LineEvaluator score squashed to [-1, 1]. The network is
+ * trained in floating point with Adam on the squared error of its output squashed the same way,
+ * then quantized to the integer weights of NeuralNetwork.
+ */
+public class NeuralTrainer {
+
+    private static final double RESULT_WEIGHT = 0.5; // Share of the game result in the labels
+    private static final double LINE_SCORE_SCALE = 1000; // LineEvaluator score squashed to tanh(1)
+    private static final double RANDOM_MOVE_PROBABILITY = 0.1; // Of a random move after the opening
+    private static final int OPENING_MOVES = 2; // Random moves that start every game
+    private static final double VALIDATION_SHARE = 0.1; // Positions held out of training
+    private static final int BATCH_SIZE = 64;
+    private static final double LEARNING_RATE = 0.001;
+    private static final double BETA1 = 0.9; // Adam decay of the gradient mean
+    private static final double BETA2 = 0.999; // Adam decay of the squared gradient mean
+    private static final double ADAM_EPSILON = 1e-8;
+    private static final byte OWN = 1; // A mark of the player to move in a training position
+    private static final byte OPPONENT = 2; // A mark of the other player in a training position
+
+    private final int size; // Board size
+    private final int cells; // Cells of the board
+    private final int winStreak; // The number of consecutive marks required to win
+    private final int hidden; // Hidden units per point of view
+    private final Random random; // Source of the random moves, the initial weights and the shuffles
+    private final float[] parameters; // Hidden weights, hidden biases, output weights, output bias
+    private final int hiddenBiasOffset; // Index of the first hidden bias in parameters
+    private final int outputWeightOffset; // Index of the first output weight in parameters
+    private final int outputBiasIndex; // Index of the output bias in parameters
+    private final float[] ownPre; // Hidden units before clipping, player to move's point of view
+    private final float[] opponentPre; // Hidden units before clipping, other player's point of view
+    private final float[] ownGradient; // Error gradient of the hidden units in ownPre
+    private final float[] opponentGradient; // Error gradient of the hidden units in opponentPre
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a trainer with a randomly initialized network.
+     *
+     * @param size      the board size
+     * @param winStreak the number of consecutive marks required to win
+     * @param hidden    the number of hidden units, at most NeuralNetwork.MAX_HIDDEN
+     * @param seed      the seed of all randomness
+     */
+    NeuralTrainer(int size, int winStreak, int hidden, long seed) {
+        if (hidden < 1 || hidden > NeuralNetwork.MAX_HIDDEN) {
+            throw new IllegalArgumentException("hidden units must be between 1 and " + NeuralNetwork.MAX_HIDDEN);
+        }
+        this.size = size;
+        this.cells = size * size;
+        this.winStreak = winStreak;
+        this.hidden = hidden;
+        this.random = new Random(seed);
+        this.hiddenBiasOffset = 2 * cells * hidden;
+        this.outputWeightOffset = hiddenBiasOffset + hidden;
+        this.outputBiasIndex = outputWeightOffset + 2 * hidden;
+        this.parameters = new float[outputBiasIndex + 1];
+        this.ownPre = new float[hidden];
+        this.opponentPre = new float[hidden];
+        this.ownGradient = new float[hidden];
+        this.opponentGradient = new float[hidden];
+        double hiddenScale = 1 / Math.sqrt(cells); // About half the cells hold a mark
+        for (int i = 0; i < hiddenBiasOffset; i++) {
+            parameters[i] = (float) (random.nextGaussian() * hiddenScale);
+        }
+        for (int unit = 0; unit < hidden; unit++) {
+            parameters[hiddenBiasOffset + unit] = 0.5f; // Starts every unit inside the clipping range
+        }
+        double outputScale = 1 / Math.sqrt(2 * hidden);
+        for (int i = outputWeightOffset; i < outputBiasIndex; i++) {
+            parameters[i] = (float) (random.nextGaussian() * outputScale);
+        }
+    }
+
+    //====== TRAINING ======
+
+    /**
+     * A labeled training position.
+     */
+    private static final class Sample {
+        final byte[] cells; // OWN, OPPONENT or 0 per cell
+        final float target; // Label from the player to move's point of view, in [-1, 1]
+
+        Sample(byte[] cells, float target) {
+            this.cells = cells;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Plays games between fixed-depth searches and labels every position reached.
+     *
+     * @param games the number of games
+     * @param depth the search depth of the players, in plies
+     * @return the labeled positions
+     */
+    List<Sample> generate(int games, int depth) {
+        List<Sample> samples = new ArrayList<>();
+        for (int game = 0; game < games; game++) {
+            Board board = new Board(size);
+            List<byte[]> positions = new ArrayList<>();
+            List<Double> scores = new ArrayList<>();
+            Mark mark = Mark.X;
+            Mark winner = Mark.BLANK;
+            for (int ply = 0; ply < cells; ply++) {
+                positions.add(encode(board, mark));
+                scores.add(Math.tanh(LineEvaluator.evaluateFromScratch(board, winStreak, mark) / LINE_SCORE_SCALE));
+                int move;
+                if (ply < OPENING_MOVES || random.nextDouble() < RANDOM_MOVE_PROBABILITY) {
+                    move = randomEmptyCell(board);
+                } else {
+                    move = new AlphaBetaSearch(board, winStreak).findBestMove(mark, ParallelSearch.noDeadline(), depth);
+                }
+                board.putMark(mark, move / size, move % size);
+                if (Game.completesStreak(board, move / size, move % size, winStreak)) {
+                    winner = mark;
+                    break;
+                }
+                mark = (mark == Mark.X) ? Mark.O : Mark.X;
+            }
+            Mark mover = Mark.X;
+            for (int i = 0; i < positions.size(); i++) {
+                double result = (winner == Mark.BLANK) ? 0 : (winner == mover) ? 1 : -1;
+                double target = RESULT_WEIGHT * result + (1 - RESULT_WEIGHT) * scores.get(i);
+                samples.add(new Sample(positions.get(i), (float) target));
+                mover = (mover == Mark.X) ? Mark.O : Mark.X;
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Trains the network on part of the samples, reporting the error on the others after every epoch.
+     *
+     * @param samples the labeled positions, shuffled in place
+     * @param epochs  the number of passes over the training positions
+     */
+    void train(List<Sample> samples, int epochs) {
+        shuffle(samples);
+        int validationCount = (int) (samples.size() * VALIDATION_SHARE);
+        List<Sample> validation = samples.subList(0, validationCount);
+        List<Sample> training = new ArrayList<>(samples.subList(validationCount, samples.size()));
+        float[] gradient = new float[parameters.length];
+        double[] mean = new double[parameters.length];
+        double[] squareMean = new double[parameters.length];
+        long step = 0;
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            shuffle(training);
+            double trainingError = 0;
+            for (int start = 0; start < training.size(); start += BATCH_SIZE) {
+                int end = Math.min(training.size(), start + BATCH_SIZE);
+                Arrays.fill(gradient, 0);
+                for (int i = start; i < end; i++) {
+                    trainingError += backward(training.get(i), gradient, 1.0f / (end - start));
+                }
+                step++;
+                double meanCorrection = 1 - Math.pow(BETA1, step);
+                double squareCorrection = 1 - Math.pow(BETA2, step);
+                for (int i = 0; i < parameters.length; i++) {
+                    mean[i] = BETA1 * mean[i] + (1 - BETA1) * gradient[i];
+                    squareMean[i] = BETA2 * squareMean[i] + (1 - BETA2) * gradient[i] * gradient[i];
+                    parameters[i] -= (float) (LEARNING_RATE * (mean[i] / meanCorrection)
+                            / (Math.sqrt(squareMean[i] / squareCorrection) + ADAM_EPSILON));
+                }
+            }
+            double validationError = 0;
+            for (Sample sample : validation) {
+                double error = Math.tanh(forward(sample.cells)) - sample.target;
+                validationError += error * error;
+            }
+            System.out.printf("epoch %3d: training error %.4f, validation error %.4f%n", epoch,
+                    trainingError / training.size(), validationError / Math.max(1, validation.size()));
+        }
+    }
+
+    /**
+     * Rounds the trained weights to the integer weights of a NeuralNetwork.
+     *
+     * @return the quantized network
+     */
+    NeuralNetwork quantize() {
+        short[] hiddenWeights = new short[hiddenBiasOffset];
+        for (int i = 0; i < hiddenBiasOffset; i++) {
+            hiddenWeights[i] = toShort(parameters[i] * NeuralNetwork.ACTIVATION_SCALE);
+        }
+        short[] hiddenBiases = new short[hidden];
+        for (int unit = 0; unit < hidden; unit++) {
+            hiddenBiases[unit] = toShort(parameters[hiddenBiasOffset + unit] * NeuralNetwork.ACTIVATION_SCALE);
+        }
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < 2 * hidden; i++) {
+            outputWeights[i] = toShort(parameters[outputWeightOffset + i] * NeuralNetwork.OUTPUT_WEIGHT_SCALE);
+        }
+        int outputBias = (int) Math.round((double) parameters[outputBiasIndex]
+                * NeuralNetwork.ACTIVATION_SCALE * NeuralNetwork.OUTPUT_WEIGHT_SCALE);
+        return new NeuralNetwork(size, winStreak, hidden, hiddenWeights, hiddenBiases, outputWeights, outputBias);
+    }
+
+    /**
+     * Measures how far the scores of a quantized network are from those of the trained weights.
+     *
+     * @param network the quantized network
+     * @param samples the positions to compare on
+     * @return the mean absolute difference, in evaluation score units
+     */
+    double quantizationError(NeuralNetwork network, List<Sample> samples) {
+        double total = 0;
+        for (Sample sample : samples) {
+            Board board = new Board(size);
+            for (int cell = 0; cell < cells; cell++) {
+                if (sample.cells[cell] != 0) {
+                    board.putMark((sample.cells[cell] == OWN) ? Mark.X : Mark.O, cell / size, cell % size);
+                }
+            }
+            double expected = Math.max(-LineEvaluator.MAX_SCORE, Math.min(LineEvaluator.MAX_SCORE,
+                    forward(sample.cells) * NeuralNetwork.SCORE_SCALE));
+            total += Math.abs(new NeuralEvaluator(network, board).evaluate(Mark.X) - expected);
+        }
+        return total / Math.max(1, samples.size());
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Computes the network output of a position, leaving the hidden units in ownPre and opponentPre.
+     */
+    private double forward(byte[] position) {
+        for (int unit = 0; unit < hidden; unit++) {
+            ownPre[unit] = parameters[hiddenBiasOffset + unit];
+            opponentPre[unit] = parameters[hiddenBiasOffset + unit];
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            if (position[cell] != 0) {
+                int ownOffset = ((position[cell] == OWN) ? cell : cells + cell) * hidden;
+                int opponentOffset = ((position[cell] == OPPONENT) ? cell : cells + cell) * hidden;
+                for (int unit = 0; unit < hidden; unit++) {
+                    ownPre[unit] += parameters[ownOffset + unit];
+                    opponentPre[unit] += parameters[opponentOffset + unit];
+                }
+            }
+        }
+        double output = parameters[outputBiasIndex];
+        for (int unit = 0; unit < hidden; unit++) {
+            output += clip(ownPre[unit]) * parameters[outputWeightOffset + unit]
+                    + clip(opponentPre[unit]) * parameters[outputWeightOffset + hidden + unit];
+        }
+        return output;
+    }
+
+    /**
+     * Adds the weighted gradient of the squared error on a sample to gradient.
+     *
+     * @return the squared error
+     */
+    private double backward(Sample sample, float[] gradient, float weight) {
+        double prediction = Math.tanh(forward(sample.cells));
+        double error = prediction - sample.target;
+        float outputGradient = (float) (2 * error * (1 - prediction * prediction) * weight);
+        gradient[outputBiasIndex] += outputGradient;
+        for (int unit = 0; unit < hidden; unit++) {
+            gradient[outputWeightOffset + unit] += outputGradient * clip(ownPre[unit]);
+            gradient[outputWeightOffset + hidden + unit] += outputGradient * clip(opponentPre[unit]);
+            ownGradient[unit] = inRange(ownPre[unit]) ? outputGradient * parameters[outputWeightOffset + unit] : 0;
+            opponentGradient[unit] = inRange(opponentPre[unit])
+                    ? outputGradient * parameters[outputWeightOffset + hidden + unit] : 0;
+            gradient[hiddenBiasOffset + unit] += ownGradient[unit] + opponentGradient[unit];
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            if (sample.cells[cell] != 0) {
+                int ownOffset = ((sample.cells[cell] == OWN) ? cell : cells + cell) * hidden;
+                int opponentOffset = ((sample.cells[cell] == OPPONENT) ? cell : cells + cell) * hidden;
+                for (int unit = 0; unit < hidden; unit++) {
+                    gradient[ownOffset + unit] += ownGradient[unit];
+                    gradient[opponentOffset + unit] += opponentGradient[unit];
+                }
+            }
+        }
+        return error * error;
+    }
+
+    private static float clip(float value) {
+        return Math.min(Math.max(value, 0), 1);
+    }
+
+    private static boolean inRange(float value) {
+        return value > 0 && value < 1;
+    }
+
+    private static short toShort(double value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+    }
+
+    private byte[] encode(Board board, Mark mover) {
+        byte[] position = new byte[cells];
+        for (int cell : board.getOccupiedCells()) {
+            position[cell] = (board.getMark(cell / size, cell % size) == mover) ? OWN : OPPONENT;
+        }
+        return position;
+    }
+
+    private int randomEmptyCell(Board board) {
+        while (true) {
+            int cell = random.nextInt(cells);
+            if (board.getMark(cell / size, cell % size) == Mark.BLANK) {
+                return cell;
+            }
+        }
+    }
+
+    private void shuffle(List<Sample> samples) {
+        for (int i = samples.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Sample swapped = samples.get(i);
+            samples.set(i, samples.get(j));
+            samples.set(j, swapped);
+        }
+    }
+
+    /**
+     * Trains a network and saves it.
+     *
+     * @param args Command-line arguments: [size] [win_streak] [output file] followed by the optional
+     *             flags --games to generate positions from, --hidden units, --epochs of training,
+     *             --depth of the searches playing the games and --seed of all randomness
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: NeuralTrainer <size> <win_streak> <output file> [--games n] [--hidden n]"
+                    + " [--epochs n] [--depth plies] [--seed n]");
+            return;
+        }
+        int games = 2000;
+        int hidden = 32;
+        int epochs = 10;
+        int depth = 2;
+        long seed = 42;
+        for (int i = 3; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + args[i]);
+                return;
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--hidden":
+                    hidden = Integer.parseInt(value);
+                    break;
+                case "--epochs":
+                    epochs = Integer.parseInt(value);
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        int size = Integer.parseInt(args[0]);
+        int winStreak = Integer.parseInt(args[1]);
+        Path output = Path.of(args[2]);
+        try {
+            NeuralTrainer trainer = new NeuralTrainer(size, winStreak, hidden, seed);
+            List<Sample> samples = trainer.generate(games, depth);
+            System.out.println(samples.size() + " positions from " + games + " games");
+            trainer.train(samples, epochs);
+            NeuralNetwork network = trainer.quantize();
+            network.save(output);
+            NeuralNetwork loaded = NeuralNetwork.load(output);
+            System.out.printf("Saved %s, mean quantization error %.1f score units%n", output,
+                    trainer.quantizationError(loaded, samples.subList(0, Math.min(samples.size(), 10_000))));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Training failed: " + e.getMessage());
+        }
+    }
+}
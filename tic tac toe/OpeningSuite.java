@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A suite of distinct, roughly balanced opening positions for tournaments.
+ * <p>
+ * Deterministic players replay the same game whenever they start from the empty board, so
+ * a tournament learns little from its later rounds. Starting round 2j and round 2j + 1 from
+ * opening j instead makes every pair of rounds a new position, played once with each player
+ * as X. Openings are random move sequences near the center of the board. A position and its
+ * symmetric images are kept once, by Symmetry.canonicalHash. Openings that already hold a
+ * win, or whose shallow search finds a forced result, are dropped, and the suite keeps the
+ * better balanced half of the others, most balanced first.
+ * <p>
+ * The suite depends only on the board size, win streak and number of plies, never on the
+ * round count or the tournament seed, so every process of a distributed tournament builds
+ * the same suite.
+ */
+final class OpeningSuite {
+    static final int MAX_OPENINGS = 256; // Openings of the largest suite, rounds cycle through them
+    private static final int CANDIDATE_FACTOR = 2; // Distinct candidates scored per opening kept
+    private static final int ATTEMPTS_PER_CANDIDATE = 16; // Random sequences tried per candidate wanted
+    private static final int BALANCE_DEPTH = 3; // Plies searched to score a candidate
+    private static final long SEED = 0x4F50454E494E4753L; // "OPENINGS", the same in every process
+
+    private final int plies; // Moves of every opening
+    private final List<int[]> openings; // The opening move sequences, cells as row * size + column
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Builds the suite of a configuration.
+     *
+     * @param size      the board size
+     * @param winStreak the number of consecutive marks required to win
+     * @param plies     the number of moves of every opening
+     * @throws IllegalArgumentException if plies does not fit the board, or no opening is balanced
+     */
+    OpeningSuite(int size, int winStreak, int plies) {
+        if (plies < 1 || plies >= (long) size * size) {
+            throw new IllegalArgumentException("Openings of " + plies + " moves do not fit a " + size + "x"
+                    + size + " board");
+        }
+        this.plies = plies;
+        Symmetry symmetry = new Symmetry(size);
+        Random random = new Random(SEED);
+        Set<Long> seen = new HashSet<>();
+        List<int[]> candidates = new ArrayList<>();
+        List<Integer> imbalances = new ArrayList<>();
+        int wanted = MAX_OPENINGS * CANDIDATE_FACTOR;
+        for (int attempt = 0; attempt < wanted * ATTEMPTS_PER_CANDIDATE && candidates.size() < wanted; attempt++) {
+            Board board = Board.forSize(size);
+            int[] moves = randomOpening(board, winStreak, random);
+            if (moves == null || !seen.add(symmetry.canonicalHash(board))) {
+                continue; // Already won, or a symmetric image of an opening already found
+            }
+            Mark mover = (plies % 2 == 0) ? Mark.X : Mark.O;
+            AlphaBetaSearch search = new AlphaBetaSearch(board, winStreak);
+            search.findBestMove(mover, ParallelSearch.noDeadline(), BALANCE_DEPTH);
+            int imbalance = Math.abs(search.getLastScore());
+            if (imbalance >= AlphaBetaSearch.WIN_SCORE - AlphaBetaSearch.MAX_DEPTH) {
+                continue; // Decided within the search horizon
+            }
+            candidates.add(moves);
+            imbalances.add(imbalance);
+        }
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No balanced opening of " + plies + " moves on a " + size + "x"
+                    + size + " board with win streak " + winStreak);
+        }
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(imbalances::get)); // Stable, ties keep their order
+        int kept = Math.min(MAX_OPENINGS, (candidates.size() + 1) / 2);
+        this.openings = new ArrayList<>(kept);
+        for (int i = 0; i < kept; i++) {
+            openings.add(candidates.get(order[i]));
+        }
+    }
+
+    //====== SUITE OPERATIONS ======
+
+    /**
+     * Gets the number of openings in the suite.
+     *
+     * @return the opening count
+     */
+    int getCount() {
+        return openings.size();
+    }
+
+    /**
+     * Gets the number of moves of every opening.
+     *
+     * @return the plies per opening
+     */
+    int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Gets the opening of a tournament round. Rounds 2j and 2j + 1, which swap the colors of
+     * the players, share opening j; once every opening was played the suite starts over.
+     *
+     * @param round the round number
+     * @return the opening moves, X first, cells as row * size + column; not to be modified
+     */
+    int[] forRound(int round) {
+        return openings.get((round / 2) % openings.size());
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Plays random moves on an empty board: the first within the central half of the board,
+     * the others on the frontier of the stones already placed.
+     *
+     * @return the moves, or null if one of them completed a streak or no move was left
+     */
+    private int[] randomOpening(Board board, int winStreak, Random random) {
+        int size = board.getSize();
+        int margin = size / 4;
+        int[] moves = new int[plies];
+        Mark mark = Mark.X;
+        for (int ply = 0; ply < plies; ply++) {
+            int cell;
+            if (ply == 0) {
+                int span = size - 2 * margin;
+                cell = (margin + random.nextInt(span)) * size + margin + random.nextInt(span);
+            } else if (board.getFrontierSize() > 0) {
+                cell = board.getFrontierCell(random.nextInt(board.getFrontierSize()));
+            } else {
+                return null; // Every cell near the stones is taken
+            }
+            board.putMark(mark, cell / size, cell % size);
+            if (Game.completesStreak(board, cell / size, cell % size, winStreak)) {
+                return null;
+            }
+            moves[ply] = cell;
+            mark = (mark == Mark.X) ? Mark.O : Mark.X;
+        }
+        return moves;
+    }
+}
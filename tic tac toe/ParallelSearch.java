@@ -0,0 +1,243 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Root-split parallel version of the iterative-deepening alpha-beta search.
+ * In every iteration the first root move (the best one of the previous iteration) is searched
+ * alone to establish a bound, then the remaining root moves are split across a ForkJoinPool,
+ * each searched against that bound on its own copy of the board.
+ * <p>
+ * No bound is shared between the parallel tasks while they run, and a node budget is split
+ * evenly between the root moves, so with a node budget the chosen move depends only on the
+ * position and the budget, not on the number of threads or on scheduling. This holds only
+ * without a transposition table: a shared table lets the tasks see each other's results.
+ */
+class ParallelSearch {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 4; // Added to nanoTime when only nodes count
+
+    private final ForkJoinPool pool; // Workers the root moves are split across
+    private final int winStreak; // The number of consecutive marks required to win
+    private final TranspositionTable table; // Shared by all tasks, null for none
+    private final Function<Board, PositionEvaluator> evaluators; // Builds the evaluator of each task
+
+    private long nodes; // Nodes visited by the last search, over all threads
+    private int completedDepth; // Deepest iteration that finished
+    private int lastScore; // Score of the chosen move
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a parallel search running on the given pool.
+     *
+     * @param pool      the pool the root moves are searched on
+     * @param winStreak the number of consecutive marks required to win
+     */
+    ParallelSearch(ForkJoinPool pool, int winStreak) {
+        this(pool, winStreak, null);
+    }
+
+    /**
+     * Constructs a parallel search whose tasks share a transposition table.
+     *
+     * @param pool      the pool the root moves are searched on
+     * @param winStreak the number of consecutive marks required to win
+     * @param table     the transposition table shared by all tasks, or null for none
+     */
+    ParallelSearch(ForkJoinPool pool, int winStreak, TranspositionTable table) {
+        this(pool, winStreak, table, copy -> new LineEvaluator(copy, winStreak));
+    }
+
+    /**
+     * Constructs a parallel search whose tasks score positions with the given evaluators.
+     *
+     * @param pool       the pool the root moves are searched on
+     * @param winStreak  the number of consecutive marks required to win
+     * @param table      the transposition table shared by all tasks, or null for none
+     * @param evaluators builds the evaluator of each task for the task's copy of the board
+     */
+    ParallelSearch(ForkJoinPool pool, int winStreak, TranspositionTable table,
+                   Function<Board, PositionEvaluator> evaluators) {
+        this.pool = pool;
+        this.winStreak = winStreak;
+        this.table = table;
+        this.evaluators = evaluators;
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Gets the number of nodes visited by the last search, summed over all threads.
+     *
+     * @return the node count
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the deepest iteration the last search completed.
+     *
+     * @return the completed depth in plies
+     */
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Gets the score of the chosen move, from the point of view of the player to move.
+     *
+     * @return the score of the last completed iteration
+     */
+    int getLastScore() {
+        return lastScore;
+    }
+
+    //====== SEARCH ======
+
+    /**
+     * Searches one ply deeper at a time until the deadline passes, the node budget is used up,
+     * the game tree is exhausted, or a forced result is found. The board is left unchanged.
+     *
+     * @param board         the position to search
+     * @param mark          the mark of the player to move
+     * @param deadlineNanos the System.nanoTime() value after which the search stops
+     * @param nodeBudget    total nodes the search may visit, 0 for no limit
+     * @return the best move encoded as row * size + column, or AlphaBetaSearch.NO_MOVE if the board is full
+     */
+    int findBestMove(Board board, Mark mark, long deadlineNanos, long nodeBudget) {
+        nodes = 0;
+        completedDepth = 0;
+        lastScore = 0;
+        int[] moves = new AlphaBetaSearch(board.copy(), winStreak).generateMoves();
+        if (moves.length == 0) {
+            return AlphaBetaSearch.NO_MOVE;
+        }
+
+        int bestMove = moves[0];
+        int maxDepth = AlphaBetaSearch.maxDepth(board);
+        long nodeLimit = (nodeBudget > 0) ? Math.max(1, nodeBudget / moves.length) : 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Iteration iteration = new Iteration(board, moves, mark, depth, deadlineNanos, nodeLimit);
+
+            // Search the expected best move first, its score bounds the others
+            iteration.alpha = -INFINITY;
+            new RootSplitTask(iteration, 0, 1).compute();
+            if (!iteration.aborted[0]) {
+                iteration.alpha = iteration.scores[0];
+                pool.invoke(new RootSplitTask(iteration, 1, moves.length));
+            }
+            if (iteration.anyAborted()) {
+                break; // Keep the move of the last completed depth
+            }
+
+            int bestIndex = 0;
+            for (int i = 1; i < moves.length; i++) {
+                if (iteration.scores[i] > iteration.scores[bestIndex]) {
+                    bestIndex = i; // Ties go to the earlier move, independently of scheduling
+                }
+            }
+            for (long count : iteration.nodes) {
+                nodes += count;
+            }
+            bestMove = moves[bestIndex];
+            lastScore = iteration.scores[bestIndex];
+            completedDepth = depth;
+            AlphaBetaSearch.moveToFront(moves, bestIndex);
+            if (Math.abs(lastScore) >= AlphaBetaSearch.WIN_SCORE - maxDepth
+                    || (nodeBudget > 0 && nodes >= nodeBudget)) {
+                break; // Decided, or the budget is spent
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Computes a deadline that never passes, for searches bounded by nodes only.
+     *
+     * @return a System.nanoTime() value far in the future
+     */
+    static long noDeadline() {
+        return System.nanoTime() + NO_DEADLINE;
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * The state shared by all root tasks of one iteration.
+     * Each task writes only the result slots of its own moves.
+     */
+    private final class Iteration {
+        private final Board board; // The root position, copied by every task
+        private final int[] moves; // Root moves, expected best first
+        private final Mark mark; // The mark of the player to move
+        private final int depth; // Depth of this iteration in plies
+        private final long deadlineNanos; // System.nanoTime() value after which the tasks stop
+        private final long nodeLimit; // Node limit of each root move, 0 for none
+        private final int[] scores; // Score of each root move
+        private final long[] nodes; // Nodes visited for each root move
+        private final boolean[] aborted; // Whether the search of each root move was cut short
+        private int alpha; // Bound of the parallel moves, fixed before they are forked
+
+        private Iteration(Board board, int[] moves, Mark mark, int depth, long deadlineNanos, long nodeLimit) {
+            this.board = board;
+            this.moves = moves;
+            this.mark = mark;
+            this.depth = depth;
+            this.deadlineNanos = deadlineNanos;
+            this.nodeLimit = nodeLimit;
+            this.scores = new int[moves.length];
+            this.nodes = new long[moves.length];
+            this.aborted = new boolean[moves.length];
+        }
+
+        private boolean anyAborted() {
+            for (boolean moveAborted : aborted) {
+                if (moveAborted) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Searches one root move on a private copy of the board.
+         *
+         * @param index the index of the move in moves
+         */
+        private void searchMove(int index) {
+            Board copy = board.copy();
+            AlphaBetaSearch search = new AlphaBetaSearch(copy, winStreak, table, evaluators.apply(copy));
+            scores[index] = search.searchRootMove(moves[index], mark, depth, alpha, deadlineNanos, nodeLimit);
+            nodes[index] = search.getNodes();
+            aborted[index] = search.isAborted();
+        }
+    }
+
+    /**
+     * Searches a range of root moves, splitting it in halves until single moves remain.
+     */
+    private static final class RootSplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Iteration iteration; // The iteration the moves belong to
+        private final int from; // First move of the range
+        private final int to; // One past the last move of the range
+
+        private RootSplitTask(Iteration iteration, int from, int to) {
+            this.iteration = iteration;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RootSplitTask(iteration, from, middle), new RootSplitTask(iteration, middle, to));
+            } else if (to > from) {
+                iteration.searchMove(from);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the speedup of the root-split parallel search over 1, 2, 4, 8 and 16 threads.
+ * Every run searches the same position with the same node budget, so all runs must agree
+ * on the chosen move and on the number of nodes visited. Untimed warmup searches run first,
+ * so the 1-thread baseline is not measured on code the JIT compiler has not compiled yet.
+ */
+public class ParallelSearchBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int RUNS = 3; // Timed runs per thread count, the fastest is reported
+    private static final int WARMUP_RUNS = 3; // Untimed searches before the first timed one
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args [size] [win_streak] [node budget]
+     */
+    public static void main(String[] args) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 9;
+        int winStreak = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        long nodeBudget = (args.length > 2) ? Long.parseLong(args[2]) : 20_000_000L;
+
+        Board board = openingPosition(size);
+        ForkJoinPool warmupPool = new ForkJoinPool(1);
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            new ParallelSearch(warmupPool, winStreak).findBestMove(board, Mark.X, ParallelSearch.noDeadline(),
+                    nodeBudget);
+        }
+        warmupPool.shutdown();
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        System.out.println("CPUs available: " + cpus + ", more threads than that cannot speed the search up");
+        long baseline = 0;
+        int expectedMove = AlphaBetaSearch.NO_MOVE;
+        long expectedNodes = -1;
+        System.out.println("threads   best ms   nodes/s      speedup  move  depth");
+        for (int threads : THREAD_COUNTS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelSearch search = new ParallelSearch(pool, winStreak);
+            long best = Long.MAX_VALUE;
+            int move = AlphaBetaSearch.NO_MOVE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                move = search.findBestMove(board, Mark.X, ParallelSearch.noDeadline(), nodeBudget);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            pool.shutdown();
+
+            if (expectedNodes < 0) {
+                baseline = best;
+                expectedMove = move;
+                expectedNodes = search.getNodes();
+            } else if (move != expectedMove || search.getNodes() != expectedNodes) {
+                throw new IllegalStateException("Search with " + threads + " threads is not deterministic");
+            }
+            System.out.printf("%7d %9.1f %9.0f %10.2fx %5d %6d%n", threads, best / 1e6,
+                    search.getNodes() / (best / 1e9), (double) baseline / best, move, search.getCompletedDepth());
+        }
+    }
+
+    /**
+     * Builds a fixed middle-game position around the center of the board.
+     */
+    private static Board openingPosition(int size) {
+        Board board = new Board(size);
+        int center = size / 2;
+        int[][] stones = {{0, 0}, {0, 1}, {1, 1}, {-1, 0}, {1, -1}, {-1, 1}};
+        for (int i = 0; i < stones.length; i++) {
+            int row = Math.max(0, Math.min(size - 1, center + stones[i][0]));
+            int col = Math.max(0, Math.min(size - 1, center + stones[i][1]));
+            board.putMark((i % 2 == 0) ? Mark.X : Mark.O, row, col);
+        }
+        return board;
+    }
+}
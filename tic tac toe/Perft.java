@@ -0,0 +1,344 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts every game sequence of a configuration up to a depth, with its outcome, to validate
+ * Board and the win rules of Game and to measure the raw speed of move generation.
+ * Moves are played with Board.putMark and removeMark, and a game ends as Game.run ends it:
+ * when a move completes a streak, checked by Game.completesStreak, or when the board is full.
+ * <p>
+ * The first plies are split into fork-join tasks, each searching its subtree on its own copy
+ * of the board. Optionally, the counts of subtrees are shared between transpositions: they
+ * depend only on the position and the depth left, so they are stored under the Zobrist hash
+ * of the position in a concurrent map and added up wherever the position is reached again.
+ * <p>
+ * Run with --verify to check the implementations against known counts, such as the 255,168
+ * complete games of 3x3 tic-tac-toe.
+ */
+public class Perft {
+    private static final int NODES = 0; // Sequences reaching a ply, including finished games
+    private static final int X_WINS = 1; // Games X wins at a ply
+    private static final int O_WINS = 2; // Games O wins at a ply
+    private static final int DRAWS = 3; // Games ending at a ply with the board full
+    private static final int KINDS = 4; // Counts per ply
+    private static final int MIN_SHARED_DEPTH = 3; // Smaller subtrees are cheaper to search than to share
+    private static final int TASKS_PER_THREAD = 32; // Tasks the first plies are split into, per thread
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L; // Mixes the depth left into the shared keys
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    // Known counts of 3x3 tic-tac-toe, by ply
+    private static final long[] TIC_TAC_TOE_NODES = {1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872};
+    private static final long[] TIC_TAC_TOE_X_WINS = {0, 0, 0, 0, 0, 1440, 0, 47952, 0, 81792};
+    private static final long[] TIC_TAC_TOE_O_WINS = {0, 0, 0, 0, 0, 0, 5328, 0, 72576, 0};
+    private static final long[] TIC_TAC_TOE_DRAWS = {0, 0, 0, 0, 0, 0, 0, 0, 0, 46080};
+    private static final long TIC_TAC_TOE_GAMES = 255_168;
+
+    private final int size; // Board size
+    private final int winStreak; // Marks in a row needed to win
+    private final int depth; // Deepest ply counted
+    private final Map<Long, long[]> shared; // Counts of subtrees by position and depth left, null to not share
+    private final long maxShared; // Subtrees shared at most, bounds the memory of the map
+
+    /**
+     * Constructs a counter.
+     *
+     * @param size        the size of the board (nxn)
+     * @param winStreak   the number of consecutive marks required to win
+     * @param depth       the deepest ply to count, at least 1; deeper than size * size counts to size * size
+     * @param maxShared   the number of subtree counts shared between transpositions, 0 for none
+     * @throws IllegalArgumentException if depth is below 1
+     */
+    Perft(int size, int winStreak, int depth, long maxShared) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1, not " + depth);
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.depth = Math.min(depth, size * size);
+        this.maxShared = maxShared;
+        this.shared = (maxShared > 0) ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Counts the sequences from the empty board.
+     *
+     * @param pool the workers to split the first plies across
+     * @return the counts, KINDS per ply from ply 0: sequences, X wins, O wins and draws
+     */
+    long[] count(ForkJoinPool pool) {
+        int splitDepth = 0;
+        long tasks = 1;
+        int cells = size * size;
+        while (splitDepth < depth - 1 && tasks < (long) TASKS_PER_THREAD * pool.getParallelism()) {
+            tasks *= cells - splitDepth;
+            splitDepth++;
+        }
+        long[] counts = pool.invoke(new Subtree(Board.forSize(size), Mark.X, 0, splitDepth));
+        counts[NODES] = 1; // The empty board
+        return counts;
+    }
+
+    /**
+     * Gets the number of subtree counts shared between transpositions.
+     *
+     * @return the size of the shared map, 0 when not sharing
+     */
+    int getSharedEntries() {
+        return (shared == null) ? 0 : shared.size();
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Counts the subtree below a position, forking a task per move above the split depth.
+     */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private final class Subtree extends RecursiveTask<long[]> {
+        private final Board board; // This task's own board
+        private final Mark mark; // The mark to move
+        private final int ply; // Moves played to reach the position
+        private final int splitDepth; // Plies above which moves are forked
+
+        Subtree(Board board, Mark mark, int ply, int splitDepth) {
+            this.board = board;
+            this.mark = mark;
+            this.ply = ply;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected long[] compute() {
+            long[] counts = new long[(depth + 1) * KINDS];
+            if (ply >= splitDepth) {
+                walk(board, mark, ply, counts, 0);
+                return counts;
+            }
+            List<Subtree> children = new ArrayList<>();
+            int at = (ply + 1) * KINDS;
+            for (int cell = 0; cell < size * size; cell++) {
+                int row = cell / size;
+                int column = cell % size;
+                if (board.getMark(row, column) != Mark.BLANK) {
+                    continue;
+                }
+                Board child = board.copy();
+                child.putMark(mark, row, column);
+                if (!countMove(child, mark, row, column, counts, at) && ply + 1 < depth) {
+                    children.add(new Subtree(child, other(mark), ply + 1, splitDepth));
+                }
+            }
+            for (Subtree child : invokeAll(children)) {
+                long[] childCounts = child.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += childCounts[i];
+                }
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Adds the counts of the subtree below a position, from the shared map if it was counted
+     * before.
+     *
+     * @param base the index of ply 0 in counts, negative for counts starting deeper
+     */
+    private void walk(Board board, Mark mark, int ply, long[] counts, int base) {
+        int remaining = depth - ply;
+        if (shared == null || remaining < MIN_SHARED_DEPTH) {
+            expand(board, mark, ply, counts, base);
+            return;
+        }
+        long key = board.getHash() ^ (remaining * DEPTH_KEY); // The mark to move follows from the position
+        long[] subtree = shared.get(key);
+        if (subtree == null) {
+            subtree = new long[remaining * KINDS]; // From ply + 1 on
+            expand(board, mark, ply, subtree, -(ply + 1) * KINDS);
+            if (shared.size() < maxShared) {
+                shared.putIfAbsent(key, subtree);
+            }
+        }
+        int at = base + (ply + 1) * KINDS;
+        for (int i = 0; i < subtree.length; i++) {
+            counts[at + i] += subtree[i];
+        }
+    }
+
+    /**
+     * Plays every move of a position, counting it and walking the subtree below it.
+     */
+    private void expand(Board board, Mark mark, int ply, long[] counts, int base) {
+        int at = base + (ply + 1) * KINDS;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                if (board.getMark(row, column) != Mark.BLANK) {
+                    continue;
+                }
+                board.putMark(mark, row, column);
+                if (!countMove(board, mark, row, column, counts, at) && ply + 1 < depth) {
+                    walk(board, other(mark), ply + 1, counts, base);
+                }
+                board.removeMark(row, column);
+            }
+        }
+    }
+
+    /**
+     * Counts a move just played, and the game it ends, if any.
+     *
+     * @param at the index of the move's ply in counts
+     * @return true if the move ended the game
+     */
+    private boolean countMove(Board board, Mark mark, int row, int column, long[] counts, int at) {
+        counts[at + NODES]++;
+        if (Game.completesStreak(board, row, column, winStreak)) {
+            counts[at + ((mark == Mark.X) ? X_WINS : O_WINS)]++;
+            return true;
+        }
+        if (board.getStoneCount() == size * size) {
+            counts[at + DRAWS]++;
+            return true;
+        }
+        return false;
+    }
+
+    private static Mark other(Mark mark) {
+        return (mark == Mark.X) ? Mark.O : Mark.X;
+    }
+
+    /**
+     * Counts a configuration and prints the counts by ply and the rate.
+     */
+    private static long[] run(int size, int winStreak, int depth, int threads, long maxShared, boolean print) {
+        Perft perft = new Perft(size, winStreak, depth, maxShared);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        long[] counts;
+        try {
+            counts = perft.count(pool);
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        if (print) {
+            long sequences = 0;
+            long games = 0;
+            System.out.println("ply         sequences          X wins          O wins           draws");
+            for (int ply = 0; ply <= perft.depth; ply++) {
+                int at = ply * KINDS;
+                System.out.printf("%3d %17d %15d %15d %15d%n", ply, counts[at + NODES], counts[at + X_WINS],
+                        counts[at + O_WINS], counts[at + DRAWS]);
+                sequences += (ply > 0) ? counts[at + NODES] : 0;
+                games += counts[at + X_WINS] + counts[at + O_WINS] + counts[at + DRAWS];
+            }
+            System.out.printf("%d moves, %d finished games in %.3f s: %.0f nodes/sec with %d threads%s%n",
+                    sequences, games, seconds, sequences / seconds, threads,
+                    (maxShared > 0) ? ", " + perft.getSharedEntries() + " shared subtrees" : "");
+        }
+        return counts;
+    }
+
+    /**
+     * Checks the counts against known values and across the ways of counting them.
+     *
+     * @throws IllegalStateException if a check fails
+     */
+    private static void verify(int threads) {
+        long[] ticTacToe = run(3, 3, 9, threads, 0, false);
+        long games = 0;
+        for (int ply = 0; ply <= 9; ply++) {
+            int at = ply * KINDS;
+            check("3x3 ply " + ply, new long[]{TIC_TAC_TOE_NODES[ply], TIC_TAC_TOE_X_WINS[ply],
+                    TIC_TAC_TOE_O_WINS[ply], TIC_TAC_TOE_DRAWS[ply]}, Arrays.copyOfRange(ticTacToe, at, at + KINDS));
+            games += ticTacToe[at + X_WINS] + ticTacToe[at + O_WINS] + ticTacToe[at + DRAWS];
+        }
+        check("3x3 complete games", new long[]{TIC_TAC_TOE_GAMES}, new long[]{games});
+
+        // Nobody can win before ply 2 * winStreak - 1, so the counts are falling factorials until then
+        long[] early = run(4, 4, 6, threads, 0, false);
+        long expected = 1;
+        for (int ply = 0; ply <= 6; ply++) {
+            check("4x4 ply " + ply, new long[]{expected, 0, 0, 0},
+                    Arrays.copyOfRange(early, ply * KINDS, ply * KINDS + KINDS));
+            expected *= 16 - ply;
+        }
+
+        // Deep enough for wins and shared subtrees, shallow enough to keep the check quick
+        long[] serial = run(4, 3, 6, 1, 0, false);
+        check("4x4 with " + threads + " threads", serial, run(4, 3, 6, threads, 0, false));
+        check("4x4 with shared subtrees", serial, run(4, 3, 6, threads, 1_000_000, false));
+        check("3x3 with shared subtrees", ticTacToe, run(3, 3, 9, threads, 1_000_000, false));
+        System.out.println("All counts verified");
+    }
+
+    private static void check(String name, long[] expected, long[] actual) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException(name + ": expected " + Arrays.toString(expected)
+                    + ", counted " + Arrays.toString(actual));
+        }
+    }
+
+    /**
+     * Counts a configuration, or verifies the counts.
+     *
+     * @param args Command-line arguments: [size] [win_streak] [depth] followed by the optional
+     *             flags --threads n and --shared n, the number of subtree counts shared between
+     *             transpositions; or --verify, optionally followed by --threads n
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxShared = 0;
+        boolean verify = args.length > 0 && args[0].equals("--verify");
+        int first = verify ? 1 : 3;
+        if (!verify && args.length < 3) {
+            System.out.println("Usage: Perft <size> <win_streak> <depth> [--threads n] [--shared n]"
+                    + " | Perft --verify [--threads n]");
+            return;
+        }
+        for (int i = first; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + args[i]);
+                return;
+            }
+            try {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[i + 1]);
+                        break;
+                    case "--shared":
+                        maxShared = Long.parseLong(args[i + 1]);
+                        break;
+                    default:
+                        System.out.println("Unknown option: " + args[i]);
+                        return;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Bad value for " + args[i] + ": " + args[i + 1]);
+                return;
+            }
+        }
+        if (threads < 1) {
+            System.out.println("Threads must be at least 1");
+            return;
+        }
+        if (maxShared < 0) {
+            System.out.println("Shared counts must not be negative");
+            return;
+        }
+        if (verify) {
+            verify(threads);
+            return;
+        }
+        int depth = Integer.parseInt(args[2]);
+        if (depth < 1) {
+            System.out.println("Depth must be at least 1");
+            return;
+        }
+        run(Integer.parseInt(args[0]), Integer.parseInt(args[1]), depth, threads, maxShared, true);
+    }
+}
@@ -10,4 +10,26 @@ public interface Player {
      * @param mark the player's mark (X or O) to place on the board
      */
     void playTurn(Board board, Mark mark);
+
+    /**
+     * Executes the player's turn under a time limit.
+     * Players that do not manage their own thinking time simply ignore the deadline.
+     *
+     * @param board the current game board
+     * @param mark the player's mark (X or O) to place on the board
+     * @param deadlineNanos the System.nanoTime() value by which the move should be made
+     */
+    default void playTurn(Board board, Mark mark, long deadlineNanos) {
+        playTurn(board, mark);
+    }
+
+    /**
+     * Reseeds the player's source of randomness, so that its next moves can be reproduced.
+     * Players without randomness ignore the seed.
+     *
+     * @param seed the new seed
+     */
+    default void setSeed(long seed) {
+        // Deterministic players have nothing to seed
+    }
 }
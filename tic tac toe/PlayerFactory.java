@@ -1,20 +1,76 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 public class PlayerFactory {
 
+    private static final int DEFAULT_WIN_STREAK = 3; // Matches the default of Game
+    private static final String ENGINE_PREFIX = "engine:"; // Precedes the command of an external engine
+    private static final String NEURAL_PREFIX = "neural:"; // Precedes the network file of a neural player
+    private static final String DEFAULT_NETWORK_FILE = "network.nnue"; // Network of a plain "neural" player
+
+    private final TranspositionTable table; // Shared by all line-evaluating players built, null for none
+    // Tables of the neural players, one per network file, as scores of different evaluators must not mix
+    private final Map<String, TranspositionTable> networkTables = new HashMap<>();
+
     /**
      * Default constructor for PlayerFactory.
      */
     public PlayerFactory() {
-        // No initialization required for the factory
+        this(null);
     }
 
     /**
-     * Builds and returns a Player instance based on the specified type.
+     * Constructs a factory whose searching players all share one transposition table.
+     *
+     * @param table the table to share, or null for none
+     */
+    public PlayerFactory(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Builds and returns a Player instance based on the specified type,
+     * for games with the default win streak.
      *
      * @param type The type of player to create (e.g., "human", "whatever", "clever", "genius").
      * @return A Player object of the specified type.
      * @throws IllegalArgumentException if the type is not recognized.
      */
     public Player buildPlayer(String type) {
+        return buildPlayer(type, DEFAULT_WIN_STREAK);
+    }
+
+    /**
+     * Builds and returns a Player instance based on the specified type.
+     *
+     * @param type      The type of player to create (e.g., "human", "whatever", "clever", "genius",
+     *                  "search", "parallel", "neural"), "engine:" followed by the command of an external
+     *                  engine, or "neural:" followed by the network file of a neural player.
+     * @param winStreak The number of consecutive marks required to win, used by searching players.
+     * @return A Player object of the specified type, or null if the type is not recognized.
+     */
+    public Player buildPlayer(String type, int winStreak) {
+        if (type.startsWith(ENGINE_PREFIX)) {
+            String command = type.substring(ENGINE_PREFIX.length()).trim();
+            if (command.isEmpty()) {
+                return null;
+            }
+            try {
+                return new EnginePlayer(Arrays.asList(command.split("\\s+")), EnginePlayer.DEFAULT_MOVE_TIMEOUT_MILLIS);
+            } catch (UncheckedIOException e) {
+                System.out.println(e.getMessage());
+                return null;
+            }
+        }
+        if (type.startsWith(NEURAL_PREFIX) || type.equalsIgnoreCase("neural")) {
+            String file = type.startsWith(NEURAL_PREFIX) ? type.substring(NEURAL_PREFIX.length()).trim()
+                    : DEFAULT_NETWORK_FILE;
+            return buildNeuralPlayer(file, winStreak);
+        }
         switch (type.toLowerCase()) {
             case "human":
                 return new HumanPlayer();
@@ -24,8 +80,44 @@ public class PlayerFactory {
                 return new CleverPlayer();
             case "genius":
                 return new GeniusPlayer();
+            case "search":
+                return new SearchPlayer(winStreak, 1, table);
+            case "parallel":
+                return new SearchPlayer(winStreak, Runtime.getRuntime().availableProcessors(), table);
             default:
                 return null;
         }
     }
+
+    /**
+     * Builds a neural player from a network file.
+     *
+     * @param file      the network file
+     * @param winStreak the win streak of the games, which the network must have been trained for
+     * @return the player, or null if the network cannot be loaded or does not fit the games
+     */
+    private Player buildNeuralPlayer(String file, int winStreak) {
+        NeuralNetwork network;
+        try {
+            network = NeuralNetwork.load(Path.of(file));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Cannot load network " + file + ": " + e.getMessage());
+            return null;
+        }
+        if (network.winStreak != winStreak) {
+            System.out.println("Network " + file + " was trained for win streak " + network.winStreak);
+            return null;
+        }
+        return new SearchPlayer(winStreak, 1, networkTable(file), board -> new NeuralEvaluator(network, board));
+    }
+
+    /**
+     * Gets the transposition table of the players of a network, as large as the shared table.
+     *
+     * @param file the network file
+     * @return the table, or null if the factory has no shared table
+     */
+    private synchronized TranspositionTable networkTable(String file) {
+        return (table == null) ? null : networkTables.computeIfAbsent(file, f -> new TranspositionTable(table));
+    }
 }
@@ -0,0 +1,432 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyzes many positions in one run: reads them from a file, analyzes them on a pool of
+ * worker threads and writes one result line per position, in input order.
+ * <p>
+ * The input is either text, one position per line in the EngineProtocol format
+ * ("position 3 x 0 4 o 8", blank lines and lines starting with # are skipped), or a
+ * GameRecordFile, every game of which contributes the position before each of its moves.
+ * The player to move is X when both marks have been played equally often.
+ * <p>
+ * Each result line starts with the position's label, its line number or "round.ply" for
+ * records, followed by "bestmove row column" and, for the built-in search, "score", "depth"
+ * and "nodes"; a full board, or a player that does not move, gives "none" and a bad position
+ * "error" and the reason.
+ * <p>
+ * At most window positions are between being read and being written, so memory stays
+ * bounded however long the input is: the reader waits for a free slot, workers store their
+ * results in a ring of window slots, and the writer takes them out in order.
+ */
+public class PositionAnalyzer {
+    private static final String SEARCH = "search"; // Analyze with the built-in search, reporting its score
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L; // Between two progress reports
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final long FAILURE_CHECK_MILLIS = 100; // Between two checks of the writer while waiting for a slot
+
+    /**
+     * A position waiting to be analyzed, kept in its compact input form until a worker
+     * builds its board.
+     */
+    private static final class Position {
+        final String label; // Identifies the position in the output
+        final String line; // Text position, null for a position of a game record
+        final GameRecordFile.Record record; // The game of the position, null for text
+        final int ply; // Moves of the game played before the position
+
+        Position(String label, String line, GameRecordFile.Record record, int ply) {
+            this.label = label;
+            this.line = line;
+            this.record = record;
+            this.ply = ply;
+        }
+    }
+
+    private final String playerType; // SEARCH or a PlayerFactory type
+    private final int depth; // Depth limit of the built-in search
+    private final long moveMillis; // Time per position, 0 for no limit
+    private final int winStreak; // Win streak of text positions
+    private final int threads; // Worker threads
+    private final int window; // Positions read but not yet written, at most
+    private final Semaphore freeSlots; // Permits for the positions in the window
+    private final String[] slots; // Results waiting to be written, by sequence number modulo window
+    private final List<Player> players = new ArrayList<>(); // Every player built, closed at the end
+    private final ThreadLocal<Map<Integer, Player>> threadPlayers = ThreadLocal.withInitial(HashMap::new);
+    private long submitted = 0; // Positions handed to the workers, guarded by this
+    private boolean readingDone = false; // Set once the input is exhausted, guarded by this
+    private volatile IOException writeFailure; // Set if the writer failed, which stops the reader
+
+    /**
+     * Constructs an analyzer.
+     *
+     * @param playerType "search" for the built-in search, or a PlayerFactory type
+     * @param depth      depth limit of the built-in search
+     * @param moveMillis time allowed per position, 0 for no limit
+     * @param winStreak  win streak of text positions
+     * @param threads    number of worker threads
+     * @param window     number of positions read but not yet written, at most
+     */
+    PositionAnalyzer(String playerType, int depth, long moveMillis, int winStreak, int threads, int window) {
+        this.playerType = playerType;
+        this.depth = depth;
+        this.moveMillis = moveMillis;
+        this.winStreak = winStreak;
+        this.threads = Math.max(1, threads);
+        this.window = Math.max(1, window);
+        this.freeSlots = new Semaphore(this.window);
+        this.slots = new String[this.window];
+    }
+
+    /**
+     * Analyzes every position of the input and writes the results in order.
+     *
+     * @param input   the input file, read as a stream
+     * @param records true if the input is a game record file, false for text
+     * @param output  where the results go
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    void run(String input, boolean records, OutputStream output) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.US_ASCII), 1 << 16);
+        long[] written = {0};
+        Thread writerThread = new Thread(() -> {
+            try {
+                written[0] = writeResults(writer, start);
+            } catch (IOException e) {
+                writeFailure = e; // The reader stops at its next position
+            }
+        }, "analyzer-writer");
+        writerThread.start();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            if (records) {
+                readRecords(input, workers);
+            } else {
+                readText(input, workers);
+            }
+        } finally {
+            synchronized (this) {
+                readingDone = true;
+                notifyAll();
+            }
+            if (writeFailure == null) {
+                workers.shutdown();
+            } else {
+                workers.shutdownNow(); // Nobody will write the results of the queued positions
+            }
+            writerThread.join();
+            synchronized (players) {
+                players.forEach(Tournament::closePlayer);
+            }
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.err.printf("%d positions in %.2f s: %.0f positions/sec with %d threads%n",
+                written[0], seconds, written[0] / seconds, threads);
+    }
+
+    // ================ HELPERS ================
+
+    private void readText(String input, ExecutorService workers) throws IOException, InterruptedException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(input), StandardCharsets.US_ASCII), 1 << 16)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    submit(new Position(Long.toString(lineNumber), trimmed, null, 0), workers);
+                }
+            }
+        }
+    }
+
+    private void readRecords(String input, ExecutorService workers) throws IOException, InterruptedException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input), 1 << 16))) {
+            GameRecordFile.Record record;
+            while ((record = GameRecordFile.read(in)) != null) {
+                for (int ply = 0; ply < record.moves.length; ply++) {
+                    submit(new Position(record.round + "." + ply, null, record, ply), workers);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands a position to the workers once a slot of the window is free.
+     *
+     * @throws IOException if the writer failed, as no slot would ever be freed again
+     */
+    private void submit(Position position, ExecutorService workers) throws IOException, InterruptedException {
+        do {
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+        } while (!freeSlots.tryAcquire(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS));
+        long sequence;
+        synchronized (this) {
+            sequence = submitted++;
+        }
+        workers.execute(() -> analyzeAndComplete(sequence, position));
+    }
+
+    private synchronized void complete(long sequence, String result) {
+        slots[(int) (sequence % window)] = result;
+        notifyAll();
+    }
+
+    /**
+     * Writes the results in sequence order until the input is exhausted and every result is out.
+     *
+     * @return the number of results written
+     */
+    private long writeResults(Writer writer, long start) throws IOException {
+        long next = 0;
+        long lastReport = start;
+        try {
+            while (true) {
+                String result;
+                synchronized (this) {
+                    int slot = (int) (next % window);
+                    while (slots[slot] == null && !(readingDone && next == submitted)) {
+                        wait();
+                    }
+                    result = slots[slot];
+                    if (result == null) {
+                        break; // Everything was written
+                    }
+                    slots[slot] = null;
+                }
+                freeSlots.release();
+                writer.write(result);
+                writer.write('\n');
+                next++;
+                long now = System.nanoTime();
+                if (now - lastReport > PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    System.err.printf("%d positions, %.0f positions/sec%n", next,
+                            next / ((now - start) / NANOS_PER_SECOND));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writer.flush();
+        }
+        return next;
+    }
+
+    /**
+     * Analyzes a position and stores its result line. The slot is filled even when the analysis
+     * throws an Error, such as an OutOfMemoryError, so the writer never waits for it forever.
+     */
+    private void analyzeAndComplete(long sequence, Position position) {
+        String result = position.label + " error analysis aborted";
+        try {
+            result = analyzeSafely(position);
+        } catch (Error e) {
+            result = position.label + " error " + e;
+            throw e;
+        } finally {
+            complete(sequence, result);
+        }
+    }
+
+    private String analyzeSafely(Position position) {
+        try {
+            return position.label + " " + analyze(position);
+        } catch (RuntimeException e) {
+            return position.label + " error " + e.getMessage();
+        }
+    }
+
+    /**
+     * Builds the board of a position and finds the best move on it.
+     *
+     * @return the result, without the label
+     */
+    private String analyze(Position position) {
+        Board board;
+        int streak;
+        if (position.line != null) {
+            board = EngineProtocol.parsePosition(EngineProtocol.tokenize(position.line));
+            streak = winStreak;
+        } else {
+            board = replay(position.record, position.ply);
+            streak = position.record.winStreak;
+        }
+        int size = board.getSize();
+        if (streak < 2 || streak > size) {
+            throw new IllegalArgumentException("win streak " + streak + " does not fit the board");
+        }
+        if (board.getStoneCount() >= (long) size * size) {
+            return "none";
+        }
+        Mark mark = (board.getStoneCount() % 2 == 0) ? Mark.X : Mark.O;
+        long deadline = (moveMillis > 0) ? System.nanoTime() + moveMillis * NANOS_PER_MILLI
+                : ParallelSearch.noDeadline();
+        if (playerType.equals(SEARCH)) {
+            AlphaBetaSearch search = new AlphaBetaSearch(board, streak);
+            int move = search.findBestMove(mark, deadline, depth);
+            return EngineProtocol.formatBestMove(move / size, move % size) + " score " + search.getLastScore()
+                    + " depth " + search.getCompletedDepth() + " nodes " + search.getNodes();
+        }
+        int stones = board.getStoneCount();
+        playerFor(streak).playTurn(board, mark, deadline);
+        if (board.getStoneCount() == stones) {
+            return "none"; // The player gave up its turn
+        }
+        int move = board.getLastMove();
+        return EngineProtocol.formatBestMove(move / size, move % size);
+    }
+
+    /**
+     * Rebuilds the position of a game before one of its moves.
+     */
+    private static Board replay(GameRecordFile.Record record, int ply) {
+        Board board = Board.forSize(record.size);
+        for (int i = 0; i < ply; i++) {
+            int cell = record.moves[i];
+            Mark mark = (i % 2 == 0) ? Mark.X : Mark.O;
+            if (!board.putMark(mark, cell / record.size, cell % record.size)) {
+                throw new IllegalArgumentException("illegal move " + cell + " in round " + record.round);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets this worker thread's player for a win streak, building it on first use,
+     * as players keep state between moves and must not be shared between threads.
+     */
+    private Player playerFor(int streak) {
+        return threadPlayers.get().computeIfAbsent(streak, key -> {
+            Player player = new PlayerFactory().buildPlayer(playerType, key);
+            if (player == null) {
+                throw new IllegalArgumentException("unknown player type " + playerType);
+            }
+            synchronized (players) {
+                players.add(player);
+            }
+            return player;
+        });
+    }
+
+    /**
+     * Parses the command line and analyzes the input.
+     *
+     * @param args Command-line arguments: [input file] followed by the optional flags
+     *             --records, --player type, --depth plies, --move-time millis, --win-streak k,
+     *             --threads n, --window n and --output file
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Usage: PositionAnalyzer <input> [--records] [--player type] [--depth plies]"
+                    + " [--move-time millis] [--win-streak k] [--threads n] [--window n] [--output file]");
+            return;
+        }
+        boolean records = false;
+        String playerType = SEARCH;
+        int depth = 6;
+        long moveMillis = 0;
+        int winStreak = 3;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int window = 4096;
+        String output = null;
+        for (int i = 1; i < args.length; i++) {
+            String flag = args[i];
+            if (flag.equals("--records")) {
+                records = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + flag);
+                return;
+            }
+            String value = args[++i];
+            try {
+                switch (flag) {
+                    case "--player":
+                        playerType = value;
+                        break;
+                    case "--depth":
+                        depth = Integer.parseInt(value);
+                        break;
+                    case "--move-time":
+                        moveMillis = Long.parseLong(value);
+                        break;
+                    case "--win-streak":
+                        winStreak = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--window":
+                        window = Integer.parseInt(value);
+                        break;
+                    case "--output":
+                        output = value;
+                        break;
+                    default:
+                        System.out.println("Unknown option: " + flag);
+                        return;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Bad value for " + flag + ": " + value);
+                return;
+            }
+        }
+        if (!playerType.equals(SEARCH)) {
+            Player probe = new PlayerFactory().buildPlayer(playerType, winStreak);
+            if (probe == null) {
+                System.out.println("Unknown player type: " + playerType);
+                return;
+            }
+            Tournament.closePlayer(probe);
+        }
+        PositionAnalyzer analyzer = new PositionAnalyzer(playerType, depth, moveMillis, winStreak, threads, window);
+        OutputStream out = System.out;
+        try {
+            if (output != null) {
+                out = new FileOutputStream(output);
+            }
+            analyzer.run(args[0], records, out);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Analysis failed: " + e.getMessage());
+        } finally {
+            if (out != System.out) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.out.println("Cannot close " + output + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
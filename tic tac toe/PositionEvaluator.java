@@ -0,0 +1,34 @@
+/**
+ * A static evaluation kept in sync with a board while AlphaBetaSearch places and removes marks.
+ * Implementations update their state incrementally, so that reading the score of a leaf costs
+ * far less than evaluating the board from scratch.
+ */
+interface PositionEvaluator {
+
+    /**
+     * Gets the score of the position.
+     *
+     * @param side the player whose point of view is used
+     * @return the score, between -LineEvaluator.MAX_SCORE and LineEvaluator.MAX_SCORE,
+     *         positive when the position favors side
+     */
+    int evaluate(Mark side);
+
+    /**
+     * Updates the evaluation after a mark was placed on a cell.
+     *
+     * @param row  the row of the cell
+     * @param col  the column of the cell
+     * @param mark the mark placed
+     */
+    void place(int row, int col, Mark mark);
+
+    /**
+     * Updates the evaluation after a mark was removed from a cell.
+     *
+     * @param row  the row of the cell
+     * @param col  the column of the cell
+     * @param mark the mark removed
+     */
+    void remove(int row, int col, Mark mark);
+}
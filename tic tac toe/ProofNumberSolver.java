@@ -0,0 +1,642 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Solves positions of the k-in-a-row game: finds whether X wins, O wins or the game is a draw
+ * with perfect play, using depth-first proof-number search (df-pn).
+ * <p>
+ * Proof-number search answers yes or no questions, so the solver asks whether the player to move
+ * can force a win and, if not, whether the opponent can. In each proof the player trying to win
+ * is the attacker, and a draw counts as a success of the defender. A node keeps its numbers from
+ * the point of view of its player to move: phi, the effort left to reach that player's goal,
+ * and delta, the effort left to refute it. Children are searched with thresholds that grow by a
+ * quarter over the second best child, which saves most of the re-expansions of plain df-pn.
+ * <p>
+ * The search plays on bitboards set up from a Board, so boards of up to MAX_SIZE are supported.
+ * Positions are stored under the smallest of the Zobrist hashes of their eight symmetric images,
+ * see Symmetry, and symmetric moves are searched once. A player who can complete a line does so,
+ * a player facing one threat blocks it and a player facing two has lost, cells on no line that
+ * either player could still complete are never played, and a proof ends as soon as the attacker
+ * has no such line left.
+ * <p>
+ * Unsolved nodes are kept in a bounded table on the heap, where the entries with the smallest
+ * subtrees are replaced first. Solved nodes also go to a SolvedPositionFile, which spills to disk
+ * when memory runs out and lets an interrupted solve resume where it was stopped.
+ */
+public class ProofNumberSolver implements AutoCloseable {
+    static final int MAX_SIZE = 8; // Largest board whose cells fit in a long
+    private static final int INFINITY = 1 << 30; // phi of a node whose player to move cannot reach its goal
+    private static final int MOVER_WINS = -1; // Returned by generateMoves when the player to move reaches its goal
+    private static final int MOVER_LOSES = -2; // Returned by generateMoves when the player to move cannot
+    private static final long ATTACKER_O_KEY = 0x3C6EF372FE94F82BL; // XOR-ed into the keys of the proofs for O
+    private static final int ENTRY_BYTES = 8 + 8 + 4; // Key, numbers and work of a heap table entry
+    private static final int BUCKET_SIZE = 2; // Heap table entries per bucket
+    private static final int PROGRESS_CHECK_INTERVAL = 1 << 14; // Nodes between two clock reads
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int size; // Board size
+    private final int winStreak; // Marks in a row needed to win
+    private final long[] lineMasks; // The cells of every line a player can win on
+    private final int[][] linesOfCell; // The lines through each cell
+    private final long[][][] zobristKeys; // [symmetry][player][cell] key of the mapped cell
+    private final SolvedPositionFile solvedFile; // Every solved node, kept between runs
+    private final Path temporaryFile; // The solved position file if none was given, deleted on close
+    private final long progressNanos; // Between two progress reports
+
+    // Heap table of the proof numbers, in buckets of BUCKET_SIZE entries
+    private final long[] tableKeys; // Position keys, 0 for a free entry
+    private final long[] tableValues; // phi in the low and delta in the high 32 bits
+    private final int[] tableWork; // Nodes searched below each entry, the smallest is replaced first
+    private final int bucketMask; // Number of buckets minus one
+    private long tableEntries; // Entries in use
+
+    // The position being searched, players are 0 for X and 1 for O
+    private final long[] stones = new long[2]; // The cells of each player
+    private final int[][] lineCounts; // [player][line] marks of each player on each line
+    private final long[] hashes = new long[Symmetry.COUNT]; // Zobrist hash of every symmetric image
+    private final int[][] moves; // Moves of each ply, best first
+    private final long[][] childKeys; // Keys of the positions after the moves of each ply
+    private final int[][] moveScores; // Ordering scores of the moves of each ply
+    private final int[][] childPhis; // phi of the positions after the moves of each ply
+    private final int[][] childDeltas; // delta of the positions after the moves of each ply
+    private int attacker; // The player whose win is being proved
+    private long attackerKey; // XOR-ed into every key of the current proof
+
+    // Progress
+    private long nodes; // Nodes searched by this solver
+    private long startNanos; // When the current solve started
+    private long lastReportNanos; // When progress was last reported
+    private int rootMover; // Player to move at the root
+    private int rootPhi = 1; // Latest numbers of the root
+    private int rootDelta = 1;
+    private boolean fileFull; // Set once the solved position file stopped accepting positions
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a solver for a board size and win streak.
+     *
+     * @param size            the size of the board (nxn), at most MAX_SIZE
+     * @param winStreak       the number of consecutive marks required to win
+     * @param tableMegabytes  memory of the heap table
+     * @param solvedPath      the solved position file to use and resume from, null for a temporary one
+     * @param solvedMegabytes size of a new solved position file
+     * @param progressSeconds seconds between two progress reports, 0 for none
+     * @throws IOException              if the solved position file cannot be opened
+     * @throws IllegalArgumentException if the configuration is not supported, or the file
+     *                                  belongs to another configuration
+     */
+    public ProofNumberSolver(int size, int winStreak, int tableMegabytes, Path solvedPath, long solvedMegabytes,
+                             long progressSeconds) throws IOException {
+        if (size < 1 || size > MAX_SIZE || winStreak < 1 || winStreak > size) {
+            throw new IllegalArgumentException("Cannot solve size " + size + " with win streak " + winStreak
+                    + ", sizes up to " + MAX_SIZE + " are supported");
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.progressNanos = (progressSeconds > 0) ? progressSeconds * NANOS_PER_SECOND : Long.MAX_VALUE;
+        int cells = size * size;
+
+        lineMasks = buildLines();
+        int[] lineCount = new int[cells];
+        for (long mask : lineMasks) {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                lineCount[Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        linesOfCell = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            linesOfCell[cell] = new int[lineCount[cell]];
+            int count = 0;
+            for (int line = 0; line < lineMasks.length; line++) {
+                if ((lineMasks[line] & (1L << cell)) != 0) {
+                    linesOfCell[cell][count++] = line;
+                }
+            }
+        }
+        lineCounts = new int[2][lineMasks.length];
+
+        Symmetry symmetry = new Symmetry(size);
+        zobristKeys = new long[Symmetry.COUNT][2][cells];
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                int mapped = symmetry.map(s, cell);
+                zobristKeys[s][0][cell] = Board.zobristKey(Mark.X, mapped / size, mapped % size);
+                zobristKeys[s][1][cell] = Board.zobristKey(Mark.O, mapped / size, mapped % size);
+            }
+        }
+        moves = new int[cells + 1][cells];
+        childKeys = new long[cells + 1][cells];
+        moveScores = new int[cells + 1][cells];
+        childPhis = new int[cells + 1][cells];
+        childDeltas = new int[cells + 1][cells];
+
+        long entries = Math.max(1, tableMegabytes) * BYTES_PER_MB / ENTRY_BYTES;
+        long buckets = Long.highestOneBit(Math.max(1, entries / BUCKET_SIZE));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / BUCKET_SIZE));
+        tableKeys = new long[(int) buckets * BUCKET_SIZE];
+        tableValues = new long[tableKeys.length];
+        tableWork = new int[tableKeys.length];
+        bucketMask = (int) buckets - 1;
+
+        temporaryFile = (solvedPath == null) ? Files.createTempFile("solved", ".bin") : null;
+        solvedFile = new SolvedPositionFile((solvedPath == null) ? temporaryFile : solvedPath, size, winStreak,
+                Math.max(1, solvedMegabytes) * BYTES_PER_MB / Long.BYTES);
+    }
+
+    //====== SOLVING ======
+
+    /**
+     * Solves a position. The player to move is X if both have played equally often, O otherwise.
+     *
+     * @param board a position of this solver's size that nobody has won yet
+     * @return the mark of the player who wins with perfect play, or BLANK for a draw
+     * @throws IllegalArgumentException if the position cannot arise in a game of this configuration
+     * @throws UncheckedIOException     if the solved position file cannot be written
+     */
+    public Mark solve(Board board) {
+        setUp(board);
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+        if (provesWin(rootMover)) {
+            return markOf(rootMover);
+        }
+        // On the empty board the second player cannot win: the first could play its strategy with an extra mark
+        if (board.getStoneCount() > 0 && provesWin(1 - rootMover)) {
+            return markOf(1 - rootMover);
+        }
+        return Mark.BLANK;
+    }
+
+    /**
+     * Gets the number of nodes searched so far.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of solved positions in the solved position file.
+     *
+     * @return the entry count, including the positions of earlier runs
+     */
+    public long getSolvedPositions() {
+        return solvedFile.getEntries();
+    }
+
+    /**
+     * Writes the solved positions to disk and closes the solved position file,
+     * deleting it if it was temporary.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            solvedFile.close();
+        } finally {
+            if (temporaryFile != null) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Proves or disproves that a player can force a win from the root position.
+     */
+    private boolean provesWin(int player) {
+        attacker = player;
+        attackerKey = (player == 1) ? ATTACKER_O_KEY : 0;
+        rootPhi = 1;
+        rootDelta = 1;
+        long key = keyOf(minimumHash());
+        int known = solvedFile.get(key);
+        boolean moverWins = (known != SolvedPositionFile.UNKNOWN) ? known == 1
+                : (int) mid(0, rootMover, INFINITY, INFINITY, key) == 0;
+        return moverWins == (rootMover == player);
+    }
+
+    /**
+     * Searches a node until its phi or delta reaches its threshold, then stores its numbers.
+     * The numbers of the children are read from the tables once, and kept in this node's
+     * arrays while it searches them, so a table entry replaced meanwhile cannot make the
+     * search go back and forth between two children forever.
+     *
+     * @return phi in the low and delta in the high 32 bits; phi is 0 if the player to move
+     *         reaches its goal and INFINITY if not
+     */
+    private long mid(int ply, int mover, int phiThreshold, int deltaThreshold, long key) {
+        nodes++;
+        if ((nodes & (PROGRESS_CHECK_INTERVAL - 1)) == 0) {
+            reportProgress();
+        }
+        long nodesBefore = nodes;
+        int moveCount = generateMoves(ply, mover);
+        if (moveCount < 0) {
+            storeSolved(key, moveCount == MOVER_WINS, 0);
+            return (moveCount == MOVER_WINS) ? pack(0, INFINITY) : pack(INFINITY, 0);
+        }
+        int[] plyMoves = moves[ply];
+        long[] keys = childKeys[ply];
+        int[] phis = childPhis[ply];
+        int[] deltas = childDeltas[ply];
+        for (int i = 0; i < moveCount; i++) {
+            long value = lookup(keys[i]);
+            phis[i] = (int) value;
+            deltas[i] = (int) (value >>> 32);
+        }
+        while (true) {
+            // phi is the smallest delta of the children, delta the sum of their phi
+            int phi = INFINITY;
+            int secondDelta = INFINITY;
+            long phiSum = 0;
+            boolean refuted = false; // Some child's player cannot reach its goal
+            int best = 0;
+            int bestPhi = 0;
+            for (int i = 0; i < moveCount; i++) {
+                int childPhi = phis[i];
+                int childDelta = deltas[i];
+                if (childDelta < phi) {
+                    secondDelta = phi;
+                    phi = childDelta;
+                    best = i;
+                    bestPhi = childPhi;
+                } else if (childDelta < secondDelta) {
+                    secondDelta = childDelta;
+                }
+                refuted |= childPhi >= INFINITY;
+                phiSum += childPhi;
+            }
+            int delta = refuted ? INFINITY : (int) Math.min(phiSum, INFINITY - 1);
+            if (ply == 0) {
+                rootPhi = phi;
+                rootDelta = delta;
+            }
+            if (phi >= phiThreshold || delta >= deltaThreshold) {
+                int work = (int) Math.min(Integer.MAX_VALUE, nodes - nodesBefore);
+                if (phi == 0 || phi >= INFINITY) {
+                    storeSolved(key, phi == 0, work);
+                } else {
+                    store(key, phi, delta, work);
+                }
+                return pack(phi, delta);
+            }
+            long childPhiThreshold = (long) deltaThreshold - delta + bestPhi;
+            long childDeltaThreshold = Math.min(phiThreshold, secondDelta + 1L + secondDelta / 4);
+            int move = plyMoves[best];
+            play(move, mover);
+            long value = mid(ply + 1, 1 - mover, (int) Math.min(childPhiThreshold, INFINITY),
+                    (int) Math.min(childDeltaThreshold, INFINITY), keys[best]);
+            undo(move, mover);
+            phis[best] = (int) value;
+            deltas[best] = (int) (value >>> 32);
+        }
+    }
+
+    /**
+     * Finds the moves worth searching in the current position, best first, one per group of
+     * symmetric moves, unless the position is decided without searching.
+     *
+     * @return the number of moves, or MOVER_WINS or MOVER_LOSES
+     */
+    private int generateMoves(int ply, int mover) {
+        int opponent = 1 - mover;
+        int[] moverCounts = lineCounts[mover];
+        int[] opponentCounts = lineCounts[opponent];
+        long empty = ~(stones[0] | stones[1]);
+        long threats = 0; // Cells completing a line of the opponent
+        long open = 0; // Cells of the lines a player can still complete
+        boolean attackerAlive = false;
+        for (int line = 0; line < lineMasks.length; line++) {
+            if (opponentCounts[line] == 0) {
+                if (moverCounts[line] == winStreak - 1) {
+                    return MOVER_WINS; // The player to move completes the line
+                }
+                open |= lineMasks[line];
+                attackerAlive |= mover == attacker;
+            }
+            if (moverCounts[line] == 0) {
+                if (opponentCounts[line] == winStreak - 1) {
+                    threats |= lineMasks[line] & empty;
+                }
+                open |= lineMasks[line];
+                attackerAlive |= opponent == attacker;
+            }
+        }
+        if (!attackerAlive) {
+            return (mover == attacker) ? MOVER_LOSES : MOVER_WINS; // The attacker can win no more
+        }
+        if (Long.bitCount(threats) > 1) {
+            return MOVER_LOSES; // Only one threat can be blocked
+        }
+        long candidates = (threats != 0) ? threats : open & empty;
+        int[] plyMoves = moves[ply];
+        long[] keys = childKeys[ply];
+        int[] scores = moveScores[ply];
+        int count = 0;
+        for (long bits = candidates; bits != 0; bits &= bits - 1) {
+            int cell = Long.numberOfTrailingZeros(bits);
+            long key = childKey(cell, mover);
+            boolean symmetric = false;
+            for (int i = 0; i < count && !symmetric; i++) {
+                symmetric = keys[i] == key;
+            }
+            if (symmetric) {
+                continue; // Leads to the same position as an earlier move, up to symmetry
+            }
+            int score = moveScore(cell, mover);
+            int i = count++;
+            for (; i > 0 && scores[i - 1] < score; i--) {
+                plyMoves[i] = plyMoves[i - 1];
+                keys[i] = keys[i - 1];
+                scores[i] = scores[i - 1];
+            }
+            plyMoves[i] = cell;
+            keys[i] = key;
+            scores[i] = score;
+        }
+        return count;
+    }
+
+    /**
+     * Scores a move by the lines it extends or blocks, lines nearer completion counting more.
+     */
+    private int moveScore(int cell, int mover) {
+        int score = 0;
+        for (int line : linesOfCell[cell]) {
+            int own = lineCounts[mover][line];
+            int other = lineCounts[1 - mover][line];
+            if (other == 0) {
+                score += 1 << (2 * own);
+            }
+            if (own == 0) {
+                score += 1 << (2 * other);
+            }
+        }
+        return score;
+    }
+
+    private void play(int cell, int player) {
+        stones[player] |= 1L << cell;
+        for (int line : linesOfCell[cell]) {
+            lineCounts[player][line]++;
+        }
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            hashes[s] ^= zobristKeys[s][player][cell];
+        }
+    }
+
+    private void undo(int cell, int player) {
+        stones[player] &= ~(1L << cell);
+        for (int line : linesOfCell[cell]) {
+            lineCounts[player][line]--;
+        }
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            hashes[s] ^= zobristKeys[s][player][cell];
+        }
+    }
+
+    private long minimumHash() {
+        long minimum = Long.MAX_VALUE;
+        for (long hash : hashes) {
+            minimum = Math.min(minimum, hash);
+        }
+        return minimum;
+    }
+
+    /**
+     * Computes the key of the position after a move, without playing it.
+     */
+    private long childKey(int cell, int player) {
+        long minimum = Long.MAX_VALUE;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            minimum = Math.min(minimum, hashes[s] ^ zobristKeys[s][player][cell]);
+        }
+        return keyOf(minimum);
+    }
+
+    /**
+     * Turns the canonical hash of a position into its table key. The smallest of eight hashes
+     * has skewed high bits, so the key is mixed again with the SplitMix64 finalizer.
+     */
+    private long keyOf(long canonicalHash) {
+        long key = canonicalHash ^ attackerKey;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        key ^= key >>> 31;
+        return (key == 0) ? 1 : key; // A zero key could not be told apart from a free entry
+    }
+
+    /**
+     * Gets the numbers of a position: from the heap table, else from the solved position file,
+     * else those of a new node, 1 and 1.
+     *
+     * @return phi in the low and delta in the high 32 bits
+     */
+    private long lookup(long key) {
+        int index = ((int) key & bucketMask) * BUCKET_SIZE;
+        for (int entry = index; entry < index + BUCKET_SIZE; entry++) {
+            if (tableKeys[entry] == key) {
+                return tableValues[entry];
+            }
+        }
+        int known = solvedFile.get(key);
+        if (known == SolvedPositionFile.UNKNOWN) {
+            return pack(1, 1);
+        }
+        return (known == 1) ? pack(0, INFINITY) : pack(INFINITY, 0);
+    }
+
+    /**
+     * Stores the numbers of a position in the heap table, replacing the entry of the bucket with
+     * the least work if the position is not there yet.
+     */
+    private void store(long key, int phi, int delta, int work) {
+        int index = ((int) key & bucketMask) * BUCKET_SIZE;
+        int victim = index;
+        for (int entry = index; entry < index + BUCKET_SIZE; entry++) {
+            if (tableKeys[entry] == key || tableKeys[entry] == 0) {
+                victim = entry;
+                break;
+            }
+            if (tableWork[entry] < tableWork[victim]) {
+                victim = entry;
+            }
+        }
+        if (tableKeys[victim] == 0) {
+            tableEntries++;
+        }
+        tableKeys[victim] = key;
+        tableValues[victim] = pack(phi, delta);
+        tableWork[victim] = work;
+    }
+
+    private void storeSolved(long key, boolean moverWins, int work) {
+        store(key, moverWins ? 0 : INFINITY, moverWins ? INFINITY : 0, work);
+        if (!solvedFile.put(key, moverWins) && !fileFull) {
+            fileFull = true;
+            System.out.println("The solved position file is full, further results are kept on the heap only");
+        }
+    }
+
+    private static long pack(int phi, int delta) {
+        return (phi & 0xFFFFFFFFL) | ((long) delta << 32);
+    }
+
+    /**
+     * Prints the progress of the current proof and forces the solved positions to disk,
+     * if the progress interval has passed.
+     */
+    private void reportProgress() {
+        long now = System.nanoTime();
+        if (now - lastReportNanos < progressNanos) {
+            return;
+        }
+        lastReportNanos = now;
+        double seconds = (double) (now - startNanos) / NANOS_PER_SECOND;
+        boolean attackerMoves = rootMover == attacker;
+        System.out.printf("%.0f s: can %s win? %d nodes, %.0f nodes/sec, root proof %d disproof %d,"
+                        + " table %d%% full, %d solved positions%n",
+                seconds, markOf(attacker), nodes, nodes / seconds,
+                attackerMoves ? rootPhi : rootDelta, attackerMoves ? rootDelta : rootPhi,
+                tableEntries * 100 / tableKeys.length, solvedFile.getEntries());
+        try {
+            solvedFile.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the masks of every line of winStreak cells.
+     */
+    private long[] buildLines() {
+        long[] masks = new long[4 * size * size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                for (int[] direction : DIRECTIONS) {
+                    if (winStreak == 1 && direction != DIRECTIONS[0]) {
+                        continue; // A single cell is one line, not one per direction
+                    }
+                    int lastRow = row + (winStreak - 1) * direction[0];
+                    int lastColumn = column + (winStreak - 1) * direction[1];
+                    if (lastRow >= size || lastColumn < 0 || lastColumn >= size) {
+                        continue;
+                    }
+                    long mask = 0;
+                    for (int i = 0; i < winStreak; i++) {
+                        mask |= 1L << ((row + i * direction[0]) * size + column + i * direction[1]);
+                    }
+                    masks[count++] = mask;
+                }
+            }
+        }
+        return Arrays.copyOf(masks, count);
+    }
+
+    /**
+     * Copies a board into the bitboards and checks that it can arise in a game.
+     */
+    private void setUp(Board board) {
+        if (board.getSize() != size) {
+            throw new IllegalArgumentException("The board has size " + board.getSize() + ", not " + size);
+        }
+        stones[0] = 0;
+        stones[1] = 0;
+        Arrays.fill(hashes, 0);
+        for (int[] counts : lineCounts) {
+            Arrays.fill(counts, 0);
+        }
+        int[] marks = new int[2];
+        for (int cell : board.getOccupiedCells()) {
+            int player = (board.getMark(cell / size, cell % size) == Mark.X) ? 0 : 1;
+            play(cell, player);
+            marks[player]++;
+        }
+        if (marks[0] != marks[1] && marks[0] != marks[1] + 1) {
+            throw new IllegalArgumentException("X must have as many marks as O or one more");
+        }
+        for (int line = 0; line < lineMasks.length; line++) {
+            if (lineCounts[0][line] >= winStreak || lineCounts[1][line] >= winStreak) {
+                throw new IllegalArgumentException("The game is already won");
+            }
+        }
+        rootMover = (marks[0] == marks[1]) ? 0 : 1;
+    }
+
+    private static Mark markOf(int player) {
+        return (player == 0) ? Mark.X : Mark.O;
+    }
+
+    /**
+     * Solves the empty board of a configuration and prints who wins.
+     *
+     * @param args Command-line arguments: [size] [win_streak] followed by the optional flags
+     *             --memory MB of the heap table, --solved file to keep the solved positions in
+     *             and resume from, --solved-mb size of a new solved position file and
+     *             --progress seconds between two reports
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ProofNumberSolver <size> <win_streak> [--memory MB] [--solved file]"
+                    + " [--solved-mb MB] [--progress seconds]");
+            return;
+        }
+        int tableMegabytes = 256;
+        Path solvedPath = null;
+        long solvedMegabytes = 1024;
+        long progressSeconds = 10;
+        for (int i = 2; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + args[i]);
+                return;
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--memory":
+                    tableMegabytes = Integer.parseInt(value);
+                    break;
+                case "--solved":
+                    solvedPath = Path.of(value);
+                    break;
+                case "--solved-mb":
+                    solvedMegabytes = Long.parseLong(value);
+                    break;
+                case "--progress":
+                    progressSeconds = Long.parseLong(value);
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        int size = Integer.parseInt(args[0]);
+        int winStreak = Integer.parseInt(args[1]);
+        try (ProofNumberSolver solver = new ProofNumberSolver(size, winStreak, tableMegabytes, solvedPath,
+                solvedMegabytes, progressSeconds)) {
+            if (solver.getSolvedPositions() > 0) {
+                System.out.println("Resuming with " + solver.getSolvedPositions() + " solved positions");
+            }
+            long start = System.nanoTime();
+            Mark winner = solver.solve(Board.forSize(size));
+            double seconds = (double) (System.nanoTime() - start) / NANOS_PER_SECOND;
+            String result = (winner == Mark.BLANK) ? "draw"
+                    : (winner == Mark.X) ? "first player (X) wins" : "second player (O) wins";
+            System.out.println(size + "x" + size + ", win streak " + winStreak + ": " + result);
+            System.out.printf("%d nodes in %.2f s, %.0f nodes/sec, %d solved positions stored%n",
+                    solver.getNodes(), seconds, solver.getNodes() / seconds, solver.getSolvedPositions());
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            System.out.println("Solving failed: " + e.getMessage());
+        }
+    }
+}
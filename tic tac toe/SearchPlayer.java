@@ -0,0 +1,115 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Represents a player that looks ahead with a time-managed alpha-beta search.
+ * The search deepens one ply at a time and, once the move deadline passes,
+ * plays the best move of the last depth it completed.
+ * With more than one thread, the root moves are split across a ForkJoinPool,
+ * which close() shuts down. Positions are scored by a LineEvaluator, or by the
+ * evaluator the player was built with, such as a NeuralEvaluator.
+ */
+public class SearchPlayer implements Player, AutoCloseable {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long DEFAULT_MOVE_MILLIS = 200; // Thinking time when the game is untimed
+    private static final long SAFETY_MARGIN_NANOS = 5 * NANOS_PER_MILLI; // Time kept to return the move
+
+    private final int winStreak; // The number of consecutive marks required to win
+    private final ForkJoinPool pool; // Workers of the parallel search, null when single-threaded
+    private final TranspositionTable table; // Possibly shared with other players, null for none
+    private final Function<Board, PositionEvaluator> evaluators; // Builds the evaluator of every search
+
+    /**
+     * Constructs a single-threaded search player for games with the given win streak.
+     *
+     * @param winStreak the number of consecutive marks required to win
+     */
+    public SearchPlayer(int winStreak) {
+        this(winStreak, 1);
+    }
+
+    /**
+     * Constructs a search player that uses the given number of threads for every move.
+     *
+     * @param winStreak the number of consecutive marks required to win
+     * @param threads   the number of threads to search with
+     */
+    public SearchPlayer(int winStreak, int threads) {
+        this(winStreak, threads, null);
+    }
+
+    /**
+     * Constructs a search player that stores the positions it searches in a transposition table.
+     *
+     * @param winStreak the number of consecutive marks required to win
+     * @param threads   the number of threads to search with
+     * @param table     the transposition table, which may be shared with other players, or null
+     */
+    public SearchPlayer(int winStreak, int threads, TranspositionTable table) {
+        this(winStreak, threads, table, board -> new LineEvaluator(board, winStreak));
+    }
+
+    /**
+     * Constructs a search player that scores positions with its own kind of evaluator.
+     *
+     * @param winStreak  the number of consecutive marks required to win
+     * @param threads    the number of threads to search with
+     * @param table      the transposition table, shared only with players using the same evaluator, or null
+     * @param evaluators builds an evaluator for the current position of a board
+     */
+    SearchPlayer(int winStreak, int threads, TranspositionTable table, Function<Board, PositionEvaluator> evaluators) {
+        this.winStreak = winStreak;
+        this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+        this.table = table;
+        this.evaluators = evaluators;
+    }
+
+    /**
+     * Searches for the best move with the default thinking time and places the mark.
+     *
+     * @param board The current game board where the move will be made.
+     * @param mark  The mark (X or O) representing the player making the move.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        playTurn(board, mark, System.nanoTime() + DEFAULT_MOVE_MILLIS * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Searches for the best move until shortly before the deadline and places the mark.
+     *
+     * @param board         The current game board where the move will be made.
+     * @param mark          The mark (X or O) representing the player making the move.
+     * @param deadlineNanos The System.nanoTime() value by which the move should be made.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark, long deadlineNanos) {
+        if (table != null) {
+            table.newSearch();
+        }
+        int move;
+        if (pool == null) {
+            move = new AlphaBetaSearch(board, winStreak, table, evaluators.apply(board)).findBestMove(mark,
+                    deadlineNanos - SAFETY_MARGIN_NANOS);
+        } else {
+            move = new ParallelSearch(pool, winStreak, table, evaluators).findBestMove(board, mark,
+                    deadlineNanos - SAFETY_MARGIN_NANOS, 0);
+        }
+        if (move != AlphaBetaSearch.NO_MOVE) {
+            board.putMark(mark, move / board.getSize(), move % board.getSize());
+        }
+        // Turn ended successfully
+    }
+
+    /**
+     * Shuts down the threads of the parallel search, if any. The player cannot search
+     * with more than one thread afterwards.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
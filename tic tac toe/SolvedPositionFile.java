@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A hash table of solved positions kept in a memory-mapped file, for ProofNumberSolver.
+ * <p>
+ * The table can be far larger than the heap: the operating system keeps the pages in use in
+ * memory and writes the others back to the file when memory runs short. The file also outlives
+ * the solver, so a solver that was stopped resumes with every position it had already solved.
+ * <p>
+ * The file starts with a HEADER_BYTES header, laid out big-endian as: long magic, int board
+ * size, int win streak, long capacity and long entry count, followed by capacity slots of one
+ * long each. A slot holds the key of a position with its lowest bit replaced by the result,
+ * 1 if the player to move reaches its goal, and 0 while the slot is free. Collisions are
+ * resolved by linear probing, and the table stops accepting positions once it is three
+ * quarters full, as solved positions are never removed.
+ */
+class SolvedPositionFile implements AutoCloseable {
+    static final int UNKNOWN = -1; // Returned by get for a position that is not stored
+    static final int HEADER_BYTES = 64; // Bytes before the first slot
+    private static final long MAGIC = 0x54545450524F4F46L; // "TTTPROOF"
+    private static final int SEGMENT_SHIFT = 27; // log2 of the slots per mapping, 1 GB each
+    private static final long FREE = 0; // A free slot
+    private static final long RESULT_BIT = 1; // Lowest bit of a slot, the stored result
+
+    private final FileChannel channel; // The open file
+    private final MappedByteBuffer[] segments; // The slots, split in mappings of at most 2^SEGMENT_SHIFT
+    private final long capacity; // Number of slots, a power of two
+    private final int capacityBits; // log2 of the capacity
+    private final int segmentMask; // Slots per segment minus one
+    private long entries; // Positions stored
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Opens a solved position file, creating it if it is missing or empty.
+     *
+     * @param path      the file
+     * @param size      the board size of the positions
+     * @param winStreak the win streak of the positions
+     * @param capacity  the number of slots of a new file, rounded down to a power of two;
+     *                  an existing file keeps its own
+     * @throws IOException              if the file cannot be read, written or mapped
+     * @throws IllegalArgumentException if the file was written for another configuration
+     */
+    SolvedPositionFile(Path path, int size, int winStreak, long capacity) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            boolean existing = channel.size() >= HEADER_BYTES;
+            if (existing) {
+                channel.read(header, 0);
+                header.flip();
+                if (header.getLong() != MAGIC) {
+                    throw new IllegalArgumentException(path + " is not a solved position file");
+                }
+                int fileSize = header.getInt();
+                int fileWinStreak = header.getInt();
+                if (fileSize != size || fileWinStreak != winStreak) {
+                    throw new IllegalArgumentException(path + " holds positions of size " + fileSize
+                            + " with win streak " + fileWinStreak);
+                }
+                this.capacity = header.getLong();
+            } else {
+                this.capacity = Long.highestOneBit(Math.max(2, capacity));
+                header.putLong(MAGIC).putInt(size).putInt(winStreak).putLong(this.capacity).putLong(0);
+                header.clear();
+                channel.write(header, 0);
+            }
+            this.capacityBits = Long.numberOfTrailingZeros(this.capacity);
+            int segmentBits = Math.min(SEGMENT_SHIFT, capacityBits);
+            this.segmentMask = (1 << segmentBits) - 1;
+            this.segments = new MappedByteBuffer[(int) (this.capacity >>> segmentBits)];
+            long segmentBytes = (long) Long.BYTES << segmentBits;
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes,
+                        segmentBytes); // Grows the file, sparsely on most file systems
+            }
+            if (existing) {
+                // The count in the header lags behind the slots if the solver was killed, recount them
+                for (long slot = 0; slot < this.capacity; slot++) {
+                    if (read(slot) != FREE) {
+                        entries++;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    //====== TABLE OPERATIONS ======
+
+    /**
+     * Gets the number of positions stored.
+     *
+     * @return the entry count
+     */
+    long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the number of slots of the table.
+     *
+     * @return the capacity
+     */
+    long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key the position key
+     * @return 1 if the player to move reaches its goal, 0 if not, or UNKNOWN
+     */
+    int get(long key) {
+        long stored = storedKey(key);
+        long mask = capacity - 1;
+        for (long slot = slotOf(stored); ; slot = (slot + 1) & mask) {
+            long value = read(slot);
+            if (value == FREE) {
+                return UNKNOWN;
+            }
+            if ((value & ~RESULT_BIT) == stored) {
+                return (int) (value & RESULT_BIT);
+            }
+        }
+    }
+
+    /**
+     * Stores the result of a solved position, unless the table is full.
+     *
+     * @param key       the position key
+     * @param moverWins true if the player to move reaches its goal
+     * @return false if the table is full and the position was not stored
+     */
+    boolean put(long key, boolean moverWins) {
+        long stored = storedKey(key);
+        long mask = capacity - 1;
+        long slot = slotOf(stored);
+        long value;
+        while ((value = read(slot)) != FREE) {
+            if ((value & ~RESULT_BIT) == stored) {
+                return true; // Already stored, results never change
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (entries >= capacity / 4 * 3) {
+            return false;
+        }
+        write(slot, moverWins ? stored | RESULT_BIT : stored);
+        entries++;
+        return true;
+    }
+
+    /**
+     * Writes the entry count to the header and forces the table to the storage device,
+     * so a solver stopped afterwards resumes from here.
+     *
+     * @throws IOException if the write or the sync fails
+     */
+    void force() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        ByteBuffer count = ByteBuffer.allocate(Long.BYTES).putLong(entries);
+        count.flip();
+        channel.write(count, 24);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    //====== HELPERS ======
+
+    private static long storedKey(long key) {
+        long stored = key & ~RESULT_BIT;
+        return (stored == FREE) ? 2 : stored; // A zero key could not be told apart from a free slot
+    }
+
+    private long slotOf(long stored) {
+        return stored >>> (Long.SIZE - capacityBits); // The high bits, keys must be well mixed
+    }
+
+    private long read(long slot) {
+        return segments[(int) (slot >>> Integer.numberOfTrailingZeros(segmentMask + 1))]
+                .getLong((int) (slot & segmentMask) * Long.BYTES);
+    }
+
+    private void write(long slot, long value) {
+        segments[(int) (slot >>> Integer.numberOfTrailingZeros(segmentMask + 1))]
+                .putLong((int) (slot & segmentMask) * Long.BYTES, value);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * A board that stores only its occupied cells and their surroundings, for very large boards.
+ * The marks, the frontier neighbor counts and the frontier positions live in primitive hash
+ * maps keyed by cell, so memory and the cost of every move depend on the number of marks
+ * played rather than on the board area.
+ * <p>
+ * Cells are still encoded as row * size + column in an int, which limits the size to MAX_SIZE,
+ * over two billion cells: effectively unbounded for games that last a few thousand moves.
+ */
+class SparseBoard extends Board {
+    static final int MAX_SIZE = 46340; // Largest size whose cell numbers fit in an int
+    private static final Mark[] MARKS = Mark.values(); // Marks by ordinal
+
+    private final LongIntMap marks = new LongIntMap(); // Occupied cells to their Mark ordinal
+    private final LongIntMap neighborCounts = new LongIntMap(); // Cells near a stone to their count
+    private final LongIntMap frontierIndexes = new LongIntMap(); // Frontier cells to their list position
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs an empty sparse board.
+     *
+     * @param size the size of the board (nxn), at most MAX_SIZE
+     */
+    SparseBoard(int size) {
+        super(checkSize(size), true);
+    }
+
+    /**
+     * Copy constructor, creates an independent board with the same marks.
+     *
+     * @param other the board to copy
+     */
+    SparseBoard(SparseBoard other) {
+        this(other.getSize());
+        other.copyMarksTo(this);
+    }
+
+    //====== BOARD OVERRIDES ======
+
+    @Override
+    Board copy() {
+        return new SparseBoard(this);
+    }
+
+    @Override
+    boolean isSparse() {
+        return true;
+    }
+
+    @Override
+    int[] getOccupiedCells() {
+        long[] keys = marks.keys();
+        int[] cells = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            cells[i] = (int) keys[i];
+        }
+        return cells;
+    }
+
+    @Override
+    Mark readCell(int row, int column) {
+        return MARKS[marks.get(cellOf(row, column), Mark.BLANK.ordinal())];
+    }
+
+    @Override
+    void writeCell(int row, int column, Mark mark) {
+        if (mark == Mark.BLANK) {
+            marks.remove(cellOf(row, column));
+        } else {
+            marks.put(cellOf(row, column), mark.ordinal());
+        }
+    }
+
+    @Override
+    int neighborCountOf(int cell) {
+        return neighborCounts.get(cell, 0);
+    }
+
+    @Override
+    int addNeighborCount(int cell, int delta) {
+        return neighborCounts.add(cell, delta);
+    }
+
+    @Override
+    int frontierIndexOf(int cell) {
+        return frontierIndexes.get(cell, -1);
+    }
+
+    @Override
+    void setFrontierIndex(int cell, int index) {
+        if (index < 0) {
+            frontierIndexes.remove(cell);
+        } else {
+            frontierIndexes.put(cell, index);
+        }
+    }
+
+    //====== HELPERS ======
+
+    private int cellOf(int row, int column) {
+        return row * getSize() + column;
+    }
+
+    private static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Sparse board size must be in the range [1, " + MAX_SIZE + "]");
+        }
+        return size;
+    }
+}
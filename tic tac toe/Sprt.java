@@ -0,0 +1,156 @@
+/**
+ * A sequential probability ratio test on game results, deciding between two hypotheses
+ * about the Elo difference between two players: H0 that it is elo0, H1 that it is elo1.
+ * <p>
+ * The log-likelihood ratio is computed with the usual normal approximation of the trinomial
+ * (win/draw/loss) model, and compared after every game with the bounds given by the allowed
+ * error rates alpha (accepting H1 when H0 holds) and beta (accepting H0 when H1 holds).
+ */
+public class Sprt {
+
+    /**
+     * The outcome of the test after some games.
+     */
+    public enum Decision {
+        CONTINUE, // Not enough evidence yet
+        ACCEPT_H0, // The difference is elo0 or less
+        ACCEPT_H1 // The difference is elo1 or more
+    }
+
+    private static final double Z_95 = 1.959964; // Two-sided 95% quantile of the normal distribution
+    private static final double MIN_SCORE = 1e-6; // Keeps Elo conversions finite
+    private static final double PRIOR_COUNT = 0.5; // Pseudo-games added to every result kind of the LLR
+
+    private final double elo0; // Elo difference under H0
+    private final double elo1; // Elo difference under H1
+    private final double lowerBound; // LLR at or below which H0 is accepted
+    private final double upperBound; // LLR at or above which H1 is accepted
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a test.
+     *
+     * @param elo0  the Elo difference of the null hypothesis
+     * @param elo1  the Elo difference of the alternative hypothesis, greater than elo0
+     * @param alpha the probability of accepting H1 when H0 holds
+     * @param beta  the probability of accepting H0 when H1 holds
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("SPRT needs elo0 < elo1 and error rates in (0, 1)");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Gets the LLR at or below which H0 is accepted.
+     *
+     * @return the lower bound
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Gets the LLR at or above which H1 is accepted.
+     *
+     * @return the upper bound
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    //====== TEST ======
+
+    /**
+     * Computes the log-likelihood ratio of H1 against H0 for the given results.
+     *
+     * @param wins   games won by the tested player
+     * @param draws  drawn games
+     * @param losses games lost by the tested player
+     * @return the LLR, 0 before the first game
+     */
+    public double llr(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double[] moments = scoreMoments(wins, draws, losses, PRIOR_COUNT);
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * moments[0] - score0 - score1) / (2 * moments[1]);
+    }
+
+    /**
+     * Decides whether the results are significant enough to stop.
+     *
+     * @param wins   games won by the tested player
+     * @param draws  drawn games
+     * @param losses games lost by the tested player
+     * @return the decision for these results
+     */
+    public Decision decide(long wins, long draws, long losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        return (llr <= lowerBound) ? Decision.ACCEPT_H0 : Decision.CONTINUE;
+    }
+
+    /**
+     * Estimates the Elo difference and its 95% confidence interval from the results alone.
+     * When every game ended the same way, the results have no variance, and the interval
+     * takes the variance of the LLR's pseudo-games instead of shrinking to a point.
+     *
+     * @param wins   games won by the tested player
+     * @param draws  drawn games
+     * @param losses games lost by the tested player
+     * @return {estimate, lower end, upper end} in Elo
+     */
+    public static double[] eloEstimate(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        if (games == 0) {
+            return new double[]{0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+        double[] moments = scoreMoments(wins, draws, losses, 0);
+        double score = moments[0];
+        double variance = (moments[1] > 0) ? moments[1] : scoreMoments(wins, draws, losses, PRIOR_COUNT)[1];
+        double margin = Z_95 * Math.sqrt(variance / games);
+        return new double[]{toElo(score), toElo(score - margin), toElo(score + margin)};
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Computes the mean and the per-game variance of the score, after adding the given
+     * number of pseudo-games of each kind so that one-sided results still have a variance.
+     *
+     * @param prior pseudo-games added to every result kind, 0 for the raw results
+     * @return {mean, variance}
+     */
+    private static double[] scoreMoments(long wins, long draws, long losses, double prior) {
+        double w = wins + prior;
+        double d = draws + prior;
+        double l = losses + prior;
+        double games = w + d + l;
+        double score = (w + 0.5 * d) / games;
+        double variance = (w * (1 - score) * (1 - score) + d * (0.5 - score) * (0.5 - score)
+                + l * score * score) / games;
+        return new double[]{score, variance};
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double toElo(double score) {
+        double clamped = Math.max(MIN_SCORE, Math.min(1 - MIN_SCORE, score));
+        return 400 * Math.log10(clamped / (1 - clamped));
+    }
+}
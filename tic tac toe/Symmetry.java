@@ -0,0 +1,99 @@
+/**
+ * The eight symmetries of a square board: the four rotations and their mirror images.
+ * Winning lines are mapped onto winning lines, so positions related by a symmetry have the
+ * same game value, and searches and opening books can treat them as one position.
+ * Cells are encoded as row * size + column throughout.
+ */
+final class Symmetry {
+    static final int COUNT = 8; // Number of symmetries, the identity first
+
+    private final int size; // Board size
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs the symmetries of a board size. Cells are mapped arithmetically, so the
+     * symmetries of a sparse board cost no more memory than those of a small one.
+     *
+     * @param size the size of the board (nxn)
+     */
+    Symmetry(int size) {
+        this.size = size;
+    }
+
+    //====== SYMMETRY OPERATIONS ======
+
+    /**
+     * Gets the board size of these symmetries.
+     *
+     * @return the size of one dimension of the square board
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Maps a cell by a symmetry.
+     *
+     * @param symmetry the symmetry, between 0 and COUNT - 1
+     * @param cell     the cell encoded as row * size + column
+     * @return the cell the symmetry moves it to
+     */
+    int map(int symmetry, int cell) {
+        int row = cell / size;
+        int column = cell % size;
+        int last = size - 1;
+        switch (symmetry) {
+            case 0:
+                return cell;
+            case 1:
+                return column * size + (last - row); // Rotation by 90 degrees
+            case 2:
+                return (last - row) * size + (last - column); // Rotation by 180 degrees
+            case 3:
+                return (last - column) * size + row; // Rotation by 270 degrees
+            case 4:
+                return row * size + (last - column); // Mirror left to right
+            case 5:
+                return column * size + row; // Mirror on the main diagonal
+            case 6:
+                return (last - row) * size + column; // Mirror top to bottom
+            case 7:
+                return (last - column) * size + (last - row); // Mirror on the other diagonal
+            default:
+                throw new IllegalArgumentException("No symmetry " + symmetry);
+        }
+    }
+
+    /**
+     * Computes the Zobrist hash of a board after applying a symmetry to it,
+     * with the keys of Board.zobristKey, so symmetry 0 gives Board.getHash().
+     *
+     * @param board    a board of this size
+     * @param symmetry the symmetry, between 0 and COUNT - 1
+     * @return the hash of the transformed position
+     */
+    long hash(Board board, int symmetry) {
+        long hash = 0;
+        for (int cell : board.getOccupiedCells()) {
+            int mapped = map(symmetry, cell);
+            hash ^= Board.zobristKey(board.getMark(cell / size, cell % size), mapped / size, mapped % size);
+        }
+        return hash;
+    }
+
+    /**
+     * Computes a hash shared by a position and all its symmetric images: the smallest of
+     * their Zobrist hashes.
+     *
+     * @param board a board of this size
+     * @return the canonical hash of the position
+     */
+    long canonicalHash(Board board) {
+        long canonical = Long.MAX_VALUE;
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            canonical = Math.min(canonical, hash(board, symmetry));
+        }
+        return canonical;
+    }
+}
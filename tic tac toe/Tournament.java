@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Manages a Tic-Tac-Toe tournament between two players.
  * Handles multiple rounds, tracks results, and displays final scores.
@@ -8,9 +11,20 @@ public class Tournament {
     private final Player player1; // Player 1 instance
     private final Player player2; // Player 2 instance
     private final Renderer renderer; // Renderer for displaying the board
+    private final GameClock clock; // Time control of every game, null when untimed
+    private OpeningSuite openings; // Starting positions of the rounds, null to start from an empty board
     private Game game; // The current game instance
     // results[0]: player1 wins, results[1]: player2 wins, results[2]: ties
     private int[] results = {0, 0, 0};
+    // timeouts[0]: player1 lost on time, timeouts[1]: player2 lost on time
+    private int[] timeouts = {0, 0};
+    private int firstRound = 0; // Round to start from, after the last checkpoint when resuming
+    private boolean seeded = false; // Whether players are reseeded before every round
+    private long seed; // Master seed of the round seeds, when seeded
+    private TournamentJournal journal; // Checkpoint journal, null when not checkpointing
+    private GameRecordFile records; // File of finished games, null when not recording
+    private int checkpointInterval = 1; // Rounds between two checkpoints
+    private long movesPlayed = 0; // Moves played in the rounds played by this instance
 
 
     /**
@@ -22,10 +36,75 @@ public class Tournament {
      * @param player2  Second player instance.
      */
     public Tournament(int rounds, Renderer renderer, Player player1, Player player2) {
+        this(rounds, renderer, player1, player2, null);
+    }
+
+    /**
+     * Constructs a Tournament whose games are played under a time control.
+     *
+     * @param rounds   Number of rounds to be played in the tournament.
+     * @param renderer Renderer for board display.
+     * @param player1  First player instance.
+     * @param player2  Second player instance.
+     * @param clock    Clock describing the time control of each game, or null for untimed games.
+     */
+    public Tournament(int rounds, Renderer renderer, Player player1, Player player2, GameClock clock) {
         this.rounds = rounds;
         this.renderer = renderer;
         this.player1 = player1;
         this.player2 = player2;
+        this.clock = clock;
+    }
+
+    /**
+     * Makes the tournament reproducible: before every round, each player is reseeded with a
+     * seed derived from the master seed and the round number, so a round plays the same way
+     * whether or not the rounds before it were played in the same process.
+     * Players that search under a time limit remain nondeterministic.
+     *
+     * @param seed the master seed
+     */
+    public void setSeed(long seed) {
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Starts every round from an opening of a suite instead of the empty board. Each opening is
+     * played by two consecutive rounds, once with each player as X.
+     *
+     * @param openings the suite, built for the size and win streak of the tournament, or null
+     */
+    public void setOpenings(OpeningSuite openings) {
+        this.openings = openings;
+    }
+
+    /**
+     * Records finished games and checkpoints the progress of the tournament.
+     * Every checkpointInterval rounds, and after the last round, the record file is forced to
+     * disk and a checkpoint is appended to the journal, so syncs are batched over several games.
+     * The tournament must be seeded for a resumed run to match an uninterrupted one.
+     *
+     * @param journal            the journal to append checkpoints to, or null for none
+     * @param records            the file to append finished games to, or null for none
+     * @param checkpointInterval rounds between two checkpoints
+     */
+    public void setCheckpointing(TournamentJournal journal, GameRecordFile records, int checkpointInterval) {
+        this.journal = journal;
+        this.records = records;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * Continues from a checkpoint instead of from the first round, restoring its counters and seed.
+     *
+     * @param checkpoint the state to continue from
+     */
+    public void resumeFrom(TournamentJournal.Checkpoint checkpoint) {
+        firstRound = checkpoint.completedRounds;
+        results = checkpoint.results.clone();
+        timeouts = checkpoint.timeouts.clone();
+        setSeed(checkpoint.seed);
     }
 
     /**
@@ -38,27 +117,135 @@ public class Tournament {
      * @param playerName2  Name of the second player.
      */
     public void playTournament(int size, int winStreak, String playerName1, String playerName2) {
-        for (int i = 0; i < rounds; i++) {
+        playRounds(size, winStreak, firstRound, rounds);
+
+        // Print the final results at the end of the tournament
+        printResults(playerName1, playerName2);
+    }
+
+    /**
+     * Gets the results so far.
+     *
+     * @return a copy of {player 1 wins, player 2 wins, ties}
+     */
+    int[] getResults() {
+        return results.clone();
+    }
+
+    /**
+     * Gets the losses on time so far.
+     *
+     * @return a copy of {player 1 losses on time, player 2 losses on time}
+     */
+    int[] getTimeouts() {
+        return timeouts.clone();
+    }
+
+    /**
+     * Gets the number of moves played in all the rounds so far.
+     *
+     * @return the move count
+     */
+    long getMovesPlayed() {
+        return movesPlayed;
+    }
+
+    /**
+     * Plays a range of rounds, adding their outcomes to the results.
+     * A seeded tournament plays each round the same way whatever range it is part of,
+     * which lets several processes share the rounds of one tournament.
+     *
+     * @param size      Size of the board.
+     * @param winStreak Number of consecutive marks required to win.
+     * @param from      The first round to play.
+     * @param to        The round after the last one to play, at most the round count.
+     */
+    void playRounds(int size, int winStreak, int from, int to) {
+        for (int i = from; i < to; i++) {
             // Alternate starting players based on the round number
             Player xPlayer = (i % 2 == 0) ? player1 : player2;
             Player oPlayer = (i % 2 == 0) ? player2 : player1;
+            if (seeded) {
+                player1.setSeed(roundSeed(seed, i, 0));
+                player2.setSeed(roundSeed(seed, i, 1));
+            }
 
-            // Initialize a new Game with the specified size and win streak
-            game = new Game(xPlayer, oPlayer, size, winStreak, renderer);
+            // Initialize a new Game with the specified size, win streak and a fresh clock
+            GameClock gameClock = (clock == null) ? null : clock.newGameClock();
+            game = new Game(xPlayer, oPlayer, size, winStreak, renderer, gameClock);
+            if (openings != null) {
+                game.playOpening(openings.forRound(i));
+            }
 
             // Play the game and get the winner
             Mark winner = game.run();
 
             // Update results based on the outcome
             updateResults(winner, xPlayer, oPlayer);
+            updateTimeouts(game.getTimedOutMark(), xPlayer);
+            movesPlayed += game.getMoveCount();
+            saveProgress(i, winner);
         }
-
-        // Print the final results at the end of the tournament
-        printResults(playerName1, playerName2);
     }
 
     // ================ HELPERS ================
 
+    /**
+     * Records a finished round and writes a checkpoint when one is due.
+     *
+     * @param round  The round just finished.
+     * @param winner The mark of the winner of that round.
+     */
+    private void saveProgress(int round, Mark winner) {
+        try {
+            if (records != null) {
+                records.write(game, round, winner);
+            }
+            int completed = round + 1;
+            if (journal != null && (completed % checkpointInterval == 0 || completed == rounds)) {
+                long offset = 0;
+                if (records != null) {
+                    records.force(); // Games must be durable before the checkpoint refers to them
+                    offset = records.getOffset();
+                }
+                journal.append(new TournamentJournal.Checkpoint(seed, completed, results, timeouts, offset));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save the tournament progress", e);
+        }
+    }
+
+    /**
+     * Releases what a player holds, such as an external engine process, once it has played
+     * all its rounds.
+     *
+     * @param player The player to release.
+     */
+    static void closePlayer(Player player) {
+        if (player instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) player).close();
+            } catch (Exception e) {
+                System.out.println("Could not release player: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Derives the seed of a player for a round, with the SplitMix64 finalizer.
+     *
+     * @param seed   The master seed.
+     * @param round  The round number.
+     * @param player 0 for player 1, 1 for player 2.
+     * @return The seed of that player in that round.
+     */
+    private static long roundSeed(long seed, int round, int player) {
+        long z = seed + (2L * round + player + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Updates the results array based on the game outcome.
      *
@@ -84,6 +271,24 @@ public class Tournament {
         }
     }
 
+    /**
+     * Records a loss on time, if the game ended with one.
+     *
+     * @param timedOutMark The mark of the player who ran out of time, or BLANK.
+     * @param xPlayer      Player playing as X in this round.
+     */
+    private void updateTimeouts(Mark timedOutMark, Player xPlayer) {
+        if (timedOutMark == Mark.BLANK) {
+            return;
+        }
+        Player flagged = (timedOutMark == Mark.X) ? xPlayer : (xPlayer == player1 ? player2 : player1);
+        if (flagged == player1) {
+            timeouts[0]++;
+        } else {
+            timeouts[1]++;
+        }
+    }
+
     /**
      * Prints the final results of the tournament, showing wins and ties.
      *
@@ -95,6 +300,52 @@ public class Tournament {
         System.out.println("Player 1, " + playerName1 + " won: " + results[0] + " rounds");
         System.out.println("Player 2, " + playerName2 + " won: " + results[1] + " rounds");
         System.out.print("Ties: " + results[2]);
+        if (clock != null || timeouts[0] + timeouts[1] > 0) {
+            System.out.println();
+            System.out.print("Lost on time: player 1 " + timeouts[0] + ", player 2 " + timeouts[1]);
+        }
+    }
+
+    /**
+     * Runs a tournament that stops as soon as the SPRT of the options reaches a decision.
+     * Each worker thread builds its own players, so both player types are validated first.
+     */
+    private static void playAdaptiveTournament(TournamentOptions options, PlayerFactory playerFactory,
+                                               OpeningSuite openings, int roundCount, int size, int winStreak,
+                                               String playerName1, String playerName2) {
+        Sprt sprt;
+        try {
+            sprt = options.buildSprt();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        for (String playerName : new String[]{playerName1, playerName2}) {
+            Player player = playerFactory.buildPlayer(playerName, winStreak);
+            if (player == null) {
+                return;
+            }
+            closePlayer(player);
+        }
+        AdaptiveTournament tournament = new AdaptiveTournament(roundCount, options.getThreads(), sprt,
+                playerFactory, options.buildClock());
+        tournament.setOpenings(openings);
+        tournament.playTournament(size, winStreak, playerName1, playerName2);
+    }
+
+    /**
+     * Runs a tournament whose rounds are played by worker processes.
+     * The players are built in the workers, which print their own errors.
+     */
+    private static void playDistributedTournament(TournamentOptions options, int roundCount, int size,
+                                                  int winStreak, String playerName1, String playerName2) {
+        TournamentCoordinator coordinator = new TournamentCoordinator(roundCount, options.getBatchSize(),
+                options.getWorkers(), options.getSeed());
+        try {
+            coordinator.playTournament(size, winStreak, playerName1, playerName2, options.getGameFlags());
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
     }
 
     /**
@@ -102,6 +353,7 @@ public class Tournament {
      *
      * @param args Command-line arguments:
      *            [round count] [size] [win_streak] [render target] [first player] [second player]
+     *            followed by optional flags, see TournamentOptions
      */
     public static void main(String[] args) {
         int roundCount = Integer.parseInt(args[0]);
@@ -114,6 +366,14 @@ public class Tournament {
             return;
         }
 
+        TournamentOptions options;
+        try {
+            options = TournamentOptions.parse(args, 6);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
         // Create renderer using RendererFactory
         RendererFactory rendererFactory = new RendererFactory();
         Renderer renderer = rendererFactory.buildRenderer(args[3], size);
@@ -121,16 +381,60 @@ public class Tournament {
             return;
         }
 
-        // Create players using PlayerFactory
-        PlayerFactory playerFactory = new PlayerFactory();
-        Player player1 = playerFactory.buildPlayer(args[4]);
-        Player player2 = playerFactory.buildPlayer(args[5]);
+        // Build the openings first, distributed workers build the same suite
+        OpeningSuite openings;
+        try {
+            openings = options.buildOpeningSuite(size, winStreak);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        // Create players using PlayerFactory, sharing one transposition table if requested
+        TranspositionTable table = options.buildTranspositionTable();
+        PlayerFactory playerFactory = new PlayerFactory(table);
+        if (options.isAdaptive()) {
+            playAdaptiveTournament(options, playerFactory, openings, roundCount, size, winStreak, args[4],
+                    args[5]);
+            return;
+        }
+        if (options.getWorkers() > 0) {
+            playDistributedTournament(options, roundCount, size, winStreak, args[4], args[5]);
+            return;
+        }
+        Player player1 = playerFactory.buildPlayer(args[4], winStreak);
+        Player player2 = playerFactory.buildPlayer(args[5], winStreak);
         if (player1 == null || player2 == null) {
             return;
         }
 
-        // Start the tournament
-        Tournament tournament = new Tournament(roundCount, renderer, player1, player2);
-        tournament.playTournament(size, winStreak, args[4], args[5]);
+        // Start the tournament, or continue it from its last checkpoint
+        Tournament tournament = new Tournament(roundCount, renderer, player1, player2, options.buildClock());
+        tournament.setOpenings(openings);
+        // The journal belongs to these settings only; a time-picked seed is kept in its checkpoints instead
+        String description = roundCount + " " + size + " " + winStreak + " " + args[4] + " " + args[5] + " "
+                + String.join(" ", options.getGameFlags()) + (options.hasSeed() ? " --seed " + options.getSeed() : "");
+        try (TournamentJournal journal = options.openJournal(TournamentJournal.keyOf(description))) {
+            TournamentJournal.Checkpoint checkpoint = (journal == null) ? null : journal.getLastCheckpoint();
+            if (checkpoint != null) {
+                tournament.resumeFrom(checkpoint);
+            } else if (options.hasSeed() || journal != null) {
+                tournament.setSeed(options.getSeed());
+            }
+            try (GameRecordFile records = options.openRecords(checkpoint)) {
+                tournament.setCheckpointing(journal, records, options.getCheckpointInterval());
+                tournament.playTournament(size, winStreak, args[4], args[5]);
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException | IllegalStateException e) {
+            System.out.println(e.getMessage());
+            return;
+        } finally {
+            closePlayer(player1);
+            closePlayer(player2);
+        }
+        if (table != null) {
+            System.out.println();
+            System.out.print("Transposition table: " + table.getStatistics());
+        }
     }
 }
@@ -0,0 +1,282 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Spreads the rounds of a tournament over worker processes, see TournamentWorker.
+ * The rounds are split into batches, which the coordinator hands out over loopback sockets
+ * as workers become free, and the workers' results are merged as they come back:
+ * <pre>
+ * coordinator: batch 3 150 200 42     batch id, first round, end round and master seed
+ * worker:      done 3 31 12 7 0 0 1904 812345678
+ *              batch id, player 1 wins, player 2 wins, ties, their losses on time,
+ *              moves played and nanoseconds spent
+ * coordinator: quit
+ * </pre>
+ * Rounds are seeded by round number as in Tournament.setSeed, so a round plays the same way
+ * on any worker. A batch whose worker fails is handed to another one, and its partial
+ * results are never merged, so the merged results of deterministic players match a run
+ * in a single process with the same seed. This does not hold with a transposition table
+ * (--hash): each worker keeps its table across the batches it plays, so a round is searched
+ * with whatever the worker's earlier rounds left in the table, which differs from one
+ * split of the rounds to another. A batch that fails on MAX_BATCH_ATTEMPTS workers, such as
+ * one in which an engine plays an illegal move, ends the tournament instead of taking down
+ * every worker in turn.
+ */
+public class TournamentCoordinator {
+    static final String BATCH = "batch";
+    static final String DONE = "done";
+    static final String QUIT = "quit";
+
+    private static final int ACCEPT_TIMEOUT_MILLIS = 30_000; // Longest wait for a worker to connect
+    private static final int BATCH_TIMEOUT_MILLIS = 600_000; // Longest wait for a batch result
+    private static final int MAX_BATCH_ATTEMPTS = 3; // Workers a batch may fail on before the tournament stops
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final int rounds; // Total number of rounds
+    private final int batchSize; // Rounds per batch
+    private final int workerCount; // Worker processes to launch
+    private final long seed; // Master seed of the round seeds
+
+    // State shared with the worker connections, guarded by this
+    private final Deque<int[]> pending = new ArrayDeque<>(); // Batches to play, as {id, from, to, failures}
+    private final int[] results = {0, 0, 0}; // Player 1 wins, player 2 wins, ties
+    private final int[] timeouts = {0, 0}; // Losses on time of player 1 and player 2
+    private long movesPlayed = 0; // Moves of all merged batches
+    private long workerNanos = 0; // Time the workers spent playing merged batches
+    private int totalBatches = 0; // Batches the rounds were split into
+    private int completedBatches = 0; // Batches merged so far
+    private int retriedBatches = 0; // Batches handed out again after a worker failed
+    private int liveWorkers = 0; // Workers still connected
+    private int[] abandonedBatch = null; // A batch that failed MAX_BATCH_ATTEMPTS times, which stops the tournament
+
+    /**
+     * Constructs a coordinator.
+     *
+     * @param rounds      Number of rounds to be played in the tournament.
+     * @param batchSize   Number of rounds handed to a worker at a time.
+     * @param workerCount Number of worker processes to launch.
+     * @param seed        Master seed of the round seeds.
+     */
+    public TournamentCoordinator(int rounds, int batchSize, int workerCount, long seed) {
+        this.rounds = rounds;
+        this.batchSize = Math.max(1, batchSize);
+        this.workerCount = workerCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Launches the workers, plays every round on them and prints the merged results.
+     *
+     * @param size        Size of the board.
+     * @param winStreak   Number of consecutive marks required to win.
+     * @param playerName1 Type of the first player.
+     * @param playerName2 Type of the second player.
+     * @param gameFlags   Flags describing how the games are played, passed on to the workers.
+     * @throws IOException if no worker connects, every worker fails before the end, or a batch
+     *                     fails on MAX_BATCH_ATTEMPTS workers
+     */
+    public void playTournament(int size, int winStreak, String playerName1, String playerName2,
+                               List<String> gameFlags) throws IOException {
+        for (int from = 0; from < rounds; from += batchSize) {
+            pending.add(new int[]{totalBatches++, from, Math.min(rounds, from + batchSize), 0});
+        }
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        List<Thread> connections = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress())) {
+            List<String> arguments = new ArrayList<>(List.of(Integer.toString(size), Integer.toString(winStreak),
+                    playerName1, playerName2));
+            arguments.addAll(gameFlags);
+            for (int i = 0; i < workerCount; i++) {
+                processes.add(launchWorker(server.getLocalPort(), arguments));
+            }
+            server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+            for (int i = 0; i < workerCount; i++) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    break; // Play with the workers that did connect
+                }
+                synchronized (this) {
+                    liveWorkers++;
+                }
+                Thread connection = new Thread(() -> serveWorker(socket), "tournament-worker-" + connections.size());
+                connection.start();
+                connections.add(connection);
+            }
+            awaitCompletion();
+        } finally {
+            for (Thread connection : connections) {
+                connection.interrupt();
+            }
+            for (Process process : processes) {
+                process.destroy(); // Workers exit on quit, this only stops stragglers
+            }
+        }
+        printResults(playerName1, playerName2, System.nanoTime() - start);
+    }
+
+    // ================ HELPERS ================
+
+    /**
+     * Starts a worker process running this program's class path.
+     */
+    private static Process launchWorker(int port, List<String> arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TournamentWorker.class.getName());
+        command.add(InetAddress.getLoopbackAddress().getHostAddress());
+        command.add(Integer.toString(port));
+        command.addAll(arguments);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * Hands batches to one worker until none is left, putting back the batch in flight if the
+     * worker fails.
+     */
+    private void serveWorker(Socket socket) {
+        int[] batch = null;
+        try (socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setSoTimeout(BATCH_TIMEOUT_MILLIS);
+            while ((batch = nextBatch()) != null) {
+                send(writer, BATCH + " " + batch[0] + " " + batch[1] + " " + batch[2] + " " + seed);
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Worker disconnected");
+                }
+                merge(batch, EngineProtocol.tokenize(line));
+                batch = null;
+            }
+            send(writer, QUIT);
+        } catch (IOException | RuntimeException e) {
+            // The worker failed, its batch goes back to the others
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workerExited(batch);
+        }
+    }
+
+    private static void send(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Takes the next batch to play, waiting while batches are in flight on other workers,
+     * since those may still fail and come back.
+     *
+     * @return the batch, or null once every batch is merged or the tournament was abandoned
+     */
+    private synchronized int[] nextBatch() throws InterruptedException {
+        while (pending.isEmpty() && completedBatches < totalBatches && abandonedBatch == null) {
+            wait();
+        }
+        return (abandonedBatch == null) ? pending.poll() : null;
+    }
+
+    /**
+     * Adds the result of a batch to the totals.
+     *
+     * @param batch  the batch played
+     * @param tokens the tokens of the worker's done message
+     * @throws IllegalArgumentException if the message does not answer the batch
+     */
+    private synchronized void merge(int[] batch, String[] tokens) {
+        EngineProtocol.expect(tokens, DONE, 9);
+        if (EngineProtocol.parseInt(tokens[1]) != batch[0]) {
+            throw new IllegalArgumentException("Result for the wrong batch: " + tokens[1]);
+        }
+        for (int i = 0; i < results.length; i++) {
+            results[i] += EngineProtocol.parseInt(tokens[2 + i]);
+        }
+        for (int i = 0; i < timeouts.length; i++) {
+            timeouts[i] += EngineProtocol.parseInt(tokens[5 + i]);
+        }
+        movesPlayed += Long.parseLong(tokens[7]);
+        workerNanos += Long.parseLong(tokens[8]);
+        completedBatches++;
+        notifyAll();
+    }
+
+    /**
+     * Records that a worker left, putting back its batch in flight, if any, unless that batch
+     * has now failed on MAX_BATCH_ATTEMPTS workers.
+     */
+    private synchronized void workerExited(int[] batch) {
+        if (batch != null) {
+            batch[3]++;
+            if (batch[3] >= MAX_BATCH_ATTEMPTS) {
+                abandonedBatch = batch;
+            } else {
+                pending.addFirst(batch);
+                retriedBatches++;
+            }
+        }
+        liveWorkers--;
+        notifyAll();
+    }
+
+    /**
+     * Waits until every batch is merged.
+     *
+     * @throws IOException if every worker failed first, or a batch was abandoned
+     */
+    private synchronized void awaitCompletion() throws IOException {
+        try {
+            while (completedBatches < totalBatches && liveWorkers > 0 && abandonedBatch == null) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (abandonedBatch != null) {
+            throw new IOException("Batch " + abandonedBatch[0] + " (rounds " + abandonedBatch[1] + " to "
+                    + (abandonedBatch[2] - 1) + ") failed on " + MAX_BATCH_ATTEMPTS + " workers");
+        }
+        if (completedBatches < totalBatches) {
+            throw new IOException("No worker left, " + (totalBatches - completedBatches) + " batches unplayed");
+        }
+    }
+
+    /**
+     * Prints the merged results and the throughput.
+     */
+    private synchronized void printResults(String playerName1, String playerName2, long elapsedNanos) {
+        double seconds = elapsedNanos / NANOS_PER_SECOND;
+        System.out.println("######### Results #########");
+        System.out.println("Player 1, " + playerName1 + " won: " + results[0] + " rounds");
+        System.out.println("Player 2, " + playerName2 + " won: " + results[1] + " rounds");
+        System.out.println("Ties: " + results[2]);
+        if (timeouts[0] + timeouts[1] > 0) {
+            System.out.println("Lost on time: player 1 " + timeouts[0] + ", player 2 " + timeouts[1]);
+        }
+        System.out.printf("%d workers, %d batches of %d rounds, %d retried, seed %d%n",
+                workerCount, totalBatches, batchSize, retriedBatches, seed);
+        System.out.printf("%.2f s: %.0f rounds/sec, %.0f moves/sec, workers busy %.2f s%n",
+                seconds, rounds / seconds, movesPlayed / seconds, workerNanos / NANOS_PER_SECOND);
+    }
+}
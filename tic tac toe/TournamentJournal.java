@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of tournament checkpoints, so an interrupted tournament can resume.
+ * Each entry has a fixed length of ENTRY_BYTES and is laid out big-endian as: long tournament
+ * key, long seed, int completed rounds, three int results, two int timeouts, long record file
+ * offset and a long CRC32 of the preceding bytes.
+ * <p>
+ * An entry is forced to disk as soon as it is appended, and the tournament only appends one
+ * every few rounds, so the cost of syncing is shared by a batch of games. A torn last entry,
+ * left by a crash in the middle of a write, fails its checksum and is dropped on reopening.
+ */
+class TournamentJournal implements AutoCloseable {
+    static final int ENTRY_BYTES = 8 + 8 + 4 + 3 * 4 + 2 * 4 + 8 + 8;
+
+    /**
+     * The tournament state after a number of completed rounds.
+     */
+    static final class Checkpoint {
+        final long seed; // Master seed the round seeds are derived from
+        final int completedRounds; // Rounds finished so far
+        final int[] results; // Player 1 wins, player 2 wins, ties
+        final int[] timeouts; // Losses on time of player 1 and player 2
+        final long recordOffset; // Length of the game record file, 0 if none is written
+
+        /**
+         * Constructs a checkpoint, copying the arrays.
+         */
+        Checkpoint(long seed, int completedRounds, int[] results, int[] timeouts, long recordOffset) {
+            this.seed = seed;
+            this.completedRounds = completedRounds;
+            this.results = results.clone();
+            this.timeouts = timeouts.clone();
+            this.recordOffset = recordOffset;
+        }
+    }
+
+    private final FileChannel channel; // The open journal
+    private final long tournamentKey; // Identifies the tournament the entries belong to
+    private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES); // Reused to encode an entry
+    private Checkpoint lastCheckpoint; // Latest valid entry, null if there is none
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Opens a journal.
+     *
+     * @param path          the journal file, created if missing
+     * @param tournamentKey identifies the tournament, see keyOf
+     * @param resume        true to read the existing entries, false to start an empty journal
+     * @throws IOException              if the file cannot be read or written
+     * @throws IllegalArgumentException if the journal belongs to another tournament
+     */
+    TournamentJournal(Path path, long tournamentKey, boolean resume) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.tournamentKey = tournamentKey;
+        long validLength = resume ? readEntries() : 0;
+        channel.truncate(validLength); // Drop a torn tail so new entries stay aligned
+        channel.position(validLength);
+    }
+
+    //====== JOURNAL OPERATIONS ======
+
+    /**
+     * Computes the key identifying a tournament, so a journal is never resumed with
+     * different settings.
+     *
+     * @param description the settings that must match, e.g. round count, size and players
+     * @return the key
+     */
+    static long keyOf(String description) {
+        CRC32 crc = new CRC32();
+        crc.update(description.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Gets the latest checkpoint found when the journal was opened or appended since.
+     *
+     * @return the checkpoint, or null if there is none
+     */
+    Checkpoint getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    /**
+     * Appends a checkpoint and forces it to disk.
+     *
+     * @param checkpoint the state to record
+     * @throws IOException if the write or the sync fails
+     */
+    void append(Checkpoint checkpoint) throws IOException {
+        entry.clear();
+        entry.putLong(tournamentKey).putLong(checkpoint.seed).putInt(checkpoint.completedRounds);
+        for (int result : checkpoint.results) {
+            entry.putInt(result);
+        }
+        for (int timeout : checkpoint.timeouts) {
+            entry.putInt(timeout);
+        }
+        entry.putLong(checkpoint.recordOffset);
+        entry.putLong(checksum(entry.array(), ENTRY_BYTES - 8));
+        entry.flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        channel.force(false);
+        lastCheckpoint = checkpoint;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Reads the entries from the start, keeping the last valid one.
+     *
+     * @return the length of the valid prefix of the journal
+     */
+    private long readEntries() throws IOException {
+        long length = 0;
+        channel.position(0);
+        while (true) {
+            entry.clear();
+            while (entry.hasRemaining() && channel.read(entry) > 0) {
+                // Keep reading until the entry is complete or the file ends
+            }
+            if (entry.hasRemaining() || entry.getLong(ENTRY_BYTES - 8) != checksum(entry.array(), ENTRY_BYTES - 8)) {
+                return length; // End of the journal, or a torn entry
+            }
+            entry.flip();
+            if (entry.getLong() != tournamentKey) {
+                throw new IllegalArgumentException("The checkpoint journal belongs to a different tournament");
+            }
+            long seed = entry.getLong();
+            int completedRounds = entry.getInt();
+            int[] results = {entry.getInt(), entry.getInt(), entry.getInt()};
+            int[] timeouts = {entry.getInt(), entry.getInt()};
+            lastCheckpoint = new Checkpoint(seed, completedRounds, results, timeouts, entry.getLong());
+            length += ENTRY_BYTES;
+        }
+    }
+
+    private static long checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+}
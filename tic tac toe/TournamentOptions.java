@@ -0,0 +1,363 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the optional command-line flags of a tournament.
+ * The flags follow the six positional arguments of Tournament.main, e.g.
+ * "--time 60000 --increment 500 --move-time 2000 --hash 64".
+ * "--sprt 0 20 --alpha 0.05 --beta 0.05 --threads 4" turns the tournament into an adaptive
+ * one, where the round count is only an upper bound, see AdaptiveTournament; the last
+ * three flags need --sprt.
+ * "--checkpoint run.journal --record run.games --seed 42" makes a long tournament resumable
+ * with "--resume", see Tournament.setCheckpointing.
+ * "--workers 4 --batch-size 50" spreads the rounds over worker processes, see TournamentCoordinator.
+ * Neither adaptive nor distributed tournaments can be checkpointed, nor combined with each other.
+ * "--openings 4" starts every pair of rounds from a different opening of 4 moves, see OpeningSuite.
+ */
+public class TournamentOptions {
+
+    private long gameMillis = 0; // Time budget per player and game, 0 for none
+    private long incrementMillis = 0; // Time added after every move
+    private long moveMillis = 0; // Hard limit for a single move, 0 for none
+    private int hashMegabytes = 0; // Size of the shared transposition table, 0 for none
+    private int openingPlies = 0; // Moves of the opening of every round, 0 to start from an empty board
+    private boolean adaptive = false; // Whether the tournament stops on an SPRT decision
+    private double elo0 = 0; // Elo difference of the SPRT null hypothesis
+    private double elo1 = 0; // Elo difference of the SPRT alternative hypothesis
+    private double alpha = 0.05; // SPRT false positive rate
+    private double beta = 0.05; // SPRT false negative rate
+    private int threads = 1; // Games played at the same time in an adaptive tournament
+    private Long seed = null; // Master seed of the round seeds, null to pick one
+    private String journalPath = null; // Checkpoint journal, null for none
+    private String recordPath = null; // Game record file, null for none
+    private int checkpointInterval = 10; // Rounds between two checkpoints
+    private boolean resume = false; // Whether to continue from the journal's last checkpoint
+    private int workers = 0; // Worker processes of a distributed tournament, 0 to play in this process
+    private int batchSize = 50; // Rounds handed to a worker at a time
+    // Flags that describe how the games are played, passed on to worker processes
+    private final List<String> gameFlags = new ArrayList<>();
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Default constructor, describes an untimed tournament.
+     */
+    TournamentOptions() {
+        // All options start at their defaults
+    }
+
+    //====== PARSING ======
+
+    /**
+     * Parses the flags found in args, starting at the given index.
+     *
+     * @param args       the command-line arguments
+     * @param firstIndex index of the first flag
+     * @return the parsed options
+     * @throws IllegalArgumentException if a flag is unknown or lacks its value, a value is out of range,
+     *                                  or flags conflict
+     */
+    public static TournamentOptions parse(String[] args, int firstIndex) {
+        TournamentOptions options = new TournamentOptions();
+        String sprtFlag = null; // A flag that only an adaptive tournament uses, if given
+        for (int i = firstIndex; i < args.length; i++) {
+            String flag = args[i];
+            switch (flag) {
+                case "--time":
+                    options.gameMillis = options.parseGameFlag(args, ++i, flag, 0, GameClock.MAX_MILLIS);
+                    break;
+                case "--increment":
+                    options.incrementMillis = options.parseGameFlag(args, ++i, flag, 0, GameClock.MAX_MILLIS);
+                    break;
+                case "--move-time":
+                    options.moveMillis = options.parseGameFlag(args, ++i, flag, 0, GameClock.MAX_MILLIS);
+                    break;
+                case "--hash":
+                    options.hashMegabytes = (int) options.parseGameFlag(args, ++i, flag, 0, Integer.MAX_VALUE);
+                    break;
+                case "--openings":
+                    options.openingPlies = (int) options.parseGameFlag(args, ++i, flag, 0, Integer.MAX_VALUE);
+                    break;
+                case "--workers":
+                    options.workers = (int) parseLong(args, ++i, flag, 0, Integer.MAX_VALUE);
+                    break;
+                case "--batch-size":
+                    options.batchSize = (int) parseLong(args, ++i, flag, 1, Integer.MAX_VALUE);
+                    break;
+                case "--sprt":
+                    options.adaptive = true;
+                    options.elo0 = parseDouble(args, ++i, flag);
+                    options.elo1 = parseDouble(args, ++i, flag);
+                    break;
+                case "--alpha":
+                    options.alpha = parseDouble(args, ++i, flag);
+                    sprtFlag = flag;
+                    break;
+                case "--beta":
+                    options.beta = parseDouble(args, ++i, flag);
+                    sprtFlag = flag;
+                    break;
+                case "--threads":
+                    options.threads = (int) parseLong(args, ++i, flag, 1, Integer.MAX_VALUE);
+                    sprtFlag = flag;
+                    break;
+                case "--seed":
+                    options.seed = parseLong(args, ++i, flag, Long.MIN_VALUE, Long.MAX_VALUE);
+                    break;
+                case "--checkpoint":
+                    options.journalPath = parseString(args, ++i, flag);
+                    break;
+                case "--checkpoint-every":
+                    options.checkpointInterval = (int) parseLong(args, ++i, flag, 1, Integer.MAX_VALUE);
+                    break;
+                case "--record":
+                    options.recordPath = parseString(args, ++i, flag);
+                    break;
+                case "--resume":
+                    options.resume = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + flag);
+            }
+        }
+        if (options.resume && options.journalPath == null) {
+            throw new IllegalArgumentException("--resume needs --checkpoint");
+        }
+        if (sprtFlag != null && !options.adaptive) {
+            throw new IllegalArgumentException(sprtFlag + " needs --sprt");
+        }
+        if (options.adaptive && options.workers > 0) {
+            throw new IllegalArgumentException("--sprt cannot be combined with --workers");
+        }
+        if ((options.adaptive || options.workers > 0)
+                && (options.journalPath != null || options.recordPath != null)) {
+            throw new IllegalArgumentException((options.adaptive ? "--sprt" : "--workers")
+                    + " cannot be combined with --checkpoint or --record");
+        }
+        return options;
+    }
+
+    //====== GETTERS ======
+
+    /**
+     * Checks whether the games are played under a time control.
+     *
+     * @return true if a game time or a per-move limit was given
+     */
+    public boolean isTimed() {
+        return gameMillis > 0 || moveMillis > 0;
+    }
+
+    /**
+     * Builds the clock for the first game of the tournament.
+     *
+     * @return a new game clock, or null if the tournament is untimed
+     */
+    public GameClock buildClock() {
+        return isTimed() ? new GameClock(gameMillis, incrementMillis, moveMillis) : null;
+    }
+
+    /**
+     * Builds the transposition table shared by all searching players of the tournament.
+     *
+     * @return a new table, or null if no table size was given
+     */
+    public TranspositionTable buildTranspositionTable() {
+        return (hashMegabytes > 0) ? new TranspositionTable(hashMegabytes) : null;
+    }
+
+    /**
+     * Builds the suite of openings the rounds start from.
+     *
+     * @param size      the board size
+     * @param winStreak the number of consecutive marks required to win
+     * @return a new suite, or null if no opening length was given
+     * @throws IllegalArgumentException if no balanced opening of that length exists
+     */
+    public OpeningSuite buildOpeningSuite(int size, int winStreak) {
+        return (openingPlies > 0) ? new OpeningSuite(size, winStreak, openingPlies) : null;
+    }
+
+    /**
+     * Checks whether the tournament should stop as soon as the SPRT reaches a decision.
+     *
+     * @return true if --sprt was given
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Gets the number of games an adaptive tournament plays at the same time.
+     *
+     * @return the thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Builds the test of an adaptive tournament.
+     *
+     * @return a new test with the given Elo bounds and error rates
+     * @throws IllegalArgumentException if the bounds or rates are invalid
+     */
+    public Sprt buildSprt() {
+        return new Sprt(elo0, elo1, alpha, beta);
+    }
+
+    /**
+     * Gets the number of worker processes of a distributed tournament.
+     *
+     * @return the worker count, 0 to play every round in this process
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets the number of rounds handed to a worker at a time.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the flags describing how the games are played, such as the time control,
+     * so that worker processes play the same games.
+     *
+     * @return the flags with their values, in the order they were given
+     */
+    public List<String> getGameFlags() {
+        return Collections.unmodifiableList(gameFlags);
+    }
+
+    /**
+     * Checks whether a master seed was given.
+     *
+     * @return true if --seed was given
+     */
+    public boolean hasSeed() {
+        return seed != null;
+    }
+
+    /**
+     * Gets the master seed of the round seeds.
+     *
+     * @return the given seed, or a seed picked from the current time if none was given
+     */
+    public long getSeed() {
+        return hasSeed() ? seed : System.nanoTime();
+    }
+
+    /**
+     * Gets the number of rounds between two checkpoints.
+     *
+     * @return the checkpoint interval
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Opens the checkpoint journal, reading its checkpoints when resuming.
+     *
+     * @param tournamentKey identifies the tournament, see TournamentJournal.keyOf
+     * @return the journal, or null if no checkpoint file was given
+     * @throws IOException if the journal cannot be opened
+     */
+    TournamentJournal openJournal(long tournamentKey) throws IOException {
+        return (journalPath == null) ? null : new TournamentJournal(Path.of(journalPath), tournamentKey, resume);
+    }
+
+    /**
+     * Opens the game record file, cut back to the checkpoint being resumed from.
+     *
+     * @param checkpoint the checkpoint being resumed from, or null when starting over
+     * @return the record file, or null if none was given
+     * @throws IOException if the file cannot be opened
+     */
+    GameRecordFile openRecords(TournamentJournal.Checkpoint checkpoint) throws IOException {
+        if (recordPath == null) {
+            return null;
+        }
+        return new GameRecordFile(Path.of(recordPath), (checkpoint == null) ? 0 : checkpoint.recordOffset);
+    }
+
+    //====== HELPERS ======
+
+    /**
+     * Reads the numeric value of a flag that describes the games, and remembers both for workers.
+     *
+     * @param args  the command-line arguments
+     * @param index index of the value
+     * @param flag  the flag the value belongs to
+     * @param min   the smallest value allowed
+     * @param max   the largest value allowed
+     * @return the parsed value
+     */
+    private long parseGameFlag(String[] args, int index, String flag, long min, long max) {
+        long value = parseLong(args, index, flag, min, max);
+        gameFlags.add(flag);
+        gameFlags.add(Long.toString(value));
+        return value;
+    }
+
+    /**
+     * Reads the numeric value of a flag.
+     *
+     * @param args  the command-line arguments
+     * @param index index of the value
+     * @param flag  the flag the value belongs to, for the error message
+     * @param min   the smallest value allowed
+     * @param max   the largest value allowed
+     * @return the parsed value
+     * @throws IllegalArgumentException if the value is missing, not a number, or out of range
+     */
+    private static long parseLong(String[] args, int index, String flag, long min, long max) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        long value = Long.parseLong(args[index]);
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(flag + " must be "
+                    + ((max == Long.MAX_VALUE) ? "at least " + min : "between " + min + " and " + max));
+        }
+        return value;
+    }
+
+    /**
+     * Reads the decimal value of a flag.
+     *
+     * @param args  the command-line arguments
+     * @param index index of the value
+     * @param flag  the flag the value belongs to, for the error message
+     * @return the parsed value
+     */
+    private static double parseDouble(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        return Double.parseDouble(args[index]);
+    }
+
+    /**
+     * Reads the text value of a flag.
+     *
+     * @param args  the command-line arguments
+     * @param index index of the value
+     * @param flag  the flag the value belongs to, for the error message
+     * @return the value
+     */
+    private static String parseString(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + flag);
+        }
+        return args[index];
+    }
+}
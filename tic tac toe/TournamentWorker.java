@@ -0,0 +1,75 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A worker process of a distributed tournament, launched by TournamentCoordinator.
+ * It builds its two players once, then plays the batches of rounds it is handed over its
+ * connection and answers each with the batch's results, until told to quit.
+ */
+public class TournamentWorker {
+
+    private TournamentWorker() {
+        // Only a main method
+    }
+
+    /**
+     * Connects to the coordinator and plays batches until told to quit.
+     *
+     * @param args Command-line arguments: [host] [port] [size] [win_streak] [first player]
+     *             [second player] followed by the game flags of TournamentOptions
+     * @throws IOException if the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int size = Integer.parseInt(args[2]);
+        int winStreak = Integer.parseInt(args[3]);
+        TournamentOptions options = TournamentOptions.parse(args, 6);
+        OpeningSuite openings = options.buildOpeningSuite(size, winStreak); // The coordinator's suite
+        PlayerFactory playerFactory = new PlayerFactory(options.buildTranspositionTable());
+        Player player1 = playerFactory.buildPlayer(args[4], winStreak);
+        Player player2 = playerFactory.buildPlayer(args[5], winStreak);
+        if (player1 == null || player2 == null) {
+            System.err.println("Worker cannot build its players");
+            return; // The coordinator sees the connection fail
+        }
+        try (Socket socket = new Socket(host, port);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = EngineProtocol.tokenize(line);
+                if (tokens[0].equals(TournamentCoordinator.QUIT)) {
+                    break;
+                }
+                EngineProtocol.expect(tokens, TournamentCoordinator.BATCH, 5);
+                int from = EngineProtocol.parseInt(tokens[2]);
+                int to = EngineProtocol.parseInt(tokens[3]);
+                long start = System.nanoTime();
+                Tournament tournament = new Tournament(to, new VoidRenderer(), player1, player2,
+                        options.buildClock());
+                tournament.setSeed(Long.parseLong(tokens[4]));
+                tournament.setOpenings(openings);
+                tournament.playRounds(size, winStreak, from, to);
+                int[] results = tournament.getResults();
+                int[] timeouts = tournament.getTimeouts();
+                writer.write(TournamentCoordinator.DONE + " " + tokens[1] + " " + results[0] + " " + results[1]
+                        + " " + results[2] + " " + timeouts[0] + " " + timeouts[1] + " "
+                        + tournament.getMovesPlayed() + " " + (System.nanoTime() - start));
+                writer.write('\n');
+                writer.flush();
+            }
+        } finally {
+            Tournament.closePlayer(player1);
+            Tournament.closePlayer(player2);
+        }
+    }
+}
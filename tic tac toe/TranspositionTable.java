@@ -0,0 +1,275 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size transposition table shared by any number of searching threads and players.
+ * <p>
+ * Entries live in a plain long[] as pairs of words: the position key XOR-ed with the data,
+ * and the data itself. Writers store both words without locking; a reader accepts an entry
+ * only if XOR-ing its two words gives back the key it is looking for, so an entry torn by a
+ * concurrent write, or belonging to another position, is simply treated as a miss.
+ * <p>
+ * The data word packs, from the lowest bit: the value (24 bits, signed), the best move plus one
+ * (22 bits, 0 for none), the depth (8 bits), the bound type (2 bits) and the search generation
+ * the entry was written in (8 bits). Entries are grouped in buckets of two; a new entry replaces
+ * the bucket entry for the same position, otherwise the shallower or older of the two.
+ */
+public class TranspositionTable {
+    static final int BOUND_EXACT = 1; // The value is the exact score
+    static final int BOUND_LOWER = 2; // The search failed high, the score is at least the value
+    static final int BOUND_UPPER = 3; // The search failed low, the score is at most the value
+    static final long MISS = 0; // Returned by probe when the position is not stored
+    static final int NO_MOVE = -1; // Best move of an entry stored without one
+
+    private static final int BUCKET_SIZE = 2; // Entries per bucket
+    private static final int WORDS_PER_ENTRY = 2; // Checked key and data
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final int AGE_PENALTY = 4; // Depth an entry loses per generation of age
+    private static final long SIDE_TO_MOVE_KEY = 0x5A5A_C3C3_0F0F_9669L; // XOR-ed into keys when O moves
+
+    private static final int VALUE_BITS = 24;
+    private static final int MOVE_BITS = 22;
+    private static final int DEPTH_BITS = 8;
+    private static final int BOUND_BITS = 2;
+    private static final int MOVE_SHIFT = VALUE_BITS;
+    private static final int DEPTH_SHIFT = MOVE_SHIFT + MOVE_BITS;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int AGE_SHIFT = BOUND_SHIFT + BOUND_BITS;
+
+    private final long[] table; // Buckets of (key ^ data, data) pairs
+    private final long bucketMask; // Number of buckets minus one, a power of two minus one
+    private volatile int generation; // Bumped at the start of every search, ages older entries
+
+    // Metrics, LongAdder keeps them cheap under contention
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+
+    //====== CONSTRUCTORS ======
+
+    /**
+     * Constructs a table using at most the given amount of memory.
+     *
+     * @param megabytes the table size in MB, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1, megabytes) * BYTES_PER_MB / (WORDS_PER_ENTRY * Long.BYTES);
+        long buckets = Long.highestOneBit(Math.max(1, entries / BUCKET_SIZE));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / (BUCKET_SIZE * WORDS_PER_ENTRY)));
+        this.table = new long[(int) (buckets * BUCKET_SIZE * WORDS_PER_ENTRY)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Constructs an empty table as large as another one, for searches whose scores must not
+     * mix with those stored in it.
+     *
+     * @param other the table whose size to use
+     */
+    TranspositionTable(TranspositionTable other) {
+        this.table = new long[other.table.length];
+        this.bucketMask = other.bucketMask;
+    }
+
+    //====== TABLE OPERATIONS ======
+
+    /**
+     * Computes the table key of a position.
+     *
+     * @param boardHash the Zobrist hash of the marks, see Board.getHash()
+     * @param toMove    the mark of the player to move
+     * @return the key to probe and store the position under
+     */
+    static long positionKey(long boardHash, Mark toMove) {
+        long key = (toMove == Mark.O) ? boardHash ^ SIDE_TO_MOVE_KEY : boardHash;
+        return (key == 0) ? 1 : key; // A zero key could not be told apart from an empty slot
+    }
+
+    /**
+     * Marks the start of a new search, so entries of earlier searches get replaced first.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & ((1 << (Long.SIZE - AGE_SHIFT)) - 1);
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key the position key, see positionKey
+     * @return the packed data of the entry, or MISS if the position is not stored
+     */
+    long probe(long key) {
+        probes.increment();
+        int base = bucketIndex(key);
+        boolean occupied = false;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int slot = base + i * WORDS_PER_ENTRY;
+            long data = table[slot + 1];
+            long checked = table[slot];
+            if ((checked ^ data) == key && data != MISS) {
+                hits.increment();
+                return data;
+            }
+            occupied |= data != MISS;
+        }
+        if (occupied) {
+            collisions.increment(); // The bucket holds other positions mapping to the same index
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key   the position key, see positionKey
+     * @param value the score, within 24 signed bits
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     * @param depth the depth the position was searched to, capped at 255
+     * @param move  the best move found, or NO_MOVE
+     */
+    void store(long key, int value, int bound, int depth, int move) {
+        stores.increment();
+        int age = generation;
+        if (move >= (1 << MOVE_BITS) - 1) {
+            move = NO_MOVE; // Cells of huge sparse boards do not fit, the entry keeps its value only
+        }
+        long data = pack(value, bound, Math.min(depth, (1 << DEPTH_BITS) - 1), move, age);
+        int base = bucketIndex(key);
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int slot = base + i * WORDS_PER_ENTRY;
+            long stored = table[slot + 1];
+            if (stored == MISS || (table[slot] ^ stored) == key) {
+                victim = slot; // Empty slot, or the same position: always overwrite
+                victimWorth = Integer.MIN_VALUE;
+                break;
+            }
+            int worth = depthOf(stored) - AGE_PENALTY * ((age - ageOf(stored)) & 0xFF);
+            if (worth < victimWorth) {
+                victim = slot;
+                victimWorth = worth;
+            }
+        }
+        if (victimWorth != Integer.MIN_VALUE) {
+            replacements.increment();
+        }
+        table[victim + 1] = data;
+        table[victim] = key ^ data;
+    }
+
+    /**
+     * Empties the table and resets its metrics.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+        replacements.reset();
+    }
+
+    //====== ENTRY DECODING ======
+
+    /**
+     * Gets the value of an entry.
+     *
+     * @param data the packed entry returned by probe
+     * @return the stored score
+     */
+    static int valueOf(long data) {
+        return (int) (data << (Long.SIZE - VALUE_BITS) >> (Long.SIZE - VALUE_BITS));
+    }
+
+    /**
+     * Gets the best move of an entry.
+     *
+     * @param data the packed entry returned by probe
+     * @return the move, or NO_MOVE
+     */
+    static int moveOf(long data) {
+        return (int) ((data >>> MOVE_SHIFT) & ((1L << MOVE_BITS) - 1)) - 1;
+    }
+
+    /**
+     * Gets the depth of an entry.
+     *
+     * @param data the packed entry returned by probe
+     * @return the depth the position was searched to
+     */
+    static int depthOf(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & ((1L << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * Gets the bound type of an entry.
+     *
+     * @param data the packed entry returned by probe
+     * @return BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    static int boundOf(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & ((1L << BOUND_BITS) - 1));
+    }
+
+    //====== METRICS ======
+
+    /**
+     * Gets the number of entries the table can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return table.length / WORDS_PER_ENTRY;
+    }
+
+    /**
+     * Gets the share of probes that found their position.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return (probeCount == 0) ? 0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * Gets the number of probes that missed while the bucket held other positions.
+     *
+     * @return the collision count
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Summarizes the metrics in one line.
+     *
+     * @return a human-readable summary
+     */
+    public String getStatistics() {
+        return String.format("%d probes, %.1f%% hits, %d collisions, %d stores, %d replacements",
+                probes.sum(), 100 * getHitRate(), collisions.sum(), stores.sum(), replacements.sum());
+    }
+
+    //====== HELPERS ======
+
+    private int bucketIndex(long key) {
+        // The high bits select the bucket, the low bits of the key stay independent of it
+        return (int) ((key >>> 17) & bucketMask) * BUCKET_SIZE * WORDS_PER_ENTRY;
+    }
+
+    private static int ageOf(long data) {
+        return (int) (data >>> AGE_SHIFT);
+    }
+
+    private static long pack(int value, int bound, int depth, int move, int age) {
+        return (value & ((1L << VALUE_BITS) - 1))
+                | ((long) (move + 1) & ((1L << MOVE_BITS) - 1)) << MOVE_SHIFT
+                | (long) depth << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) age << AGE_SHIFT;
+    }
+}
@@ -15,6 +15,16 @@ public class WhateverPlayer implements Player {
         // No parameters as specified in instructions
     }
 
+    /**
+     * Reseeds the random generator, so that the following moves can be reproduced.
+     *
+     * @param seed the new seed
+     */
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * Randomly selects an empty cell on the board and places the mark.
      *